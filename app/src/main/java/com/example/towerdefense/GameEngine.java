@@ -6,18 +6,32 @@ import android.os.Looper;
 
 import com.example.towerdefense.ecs.World;
 import com.example.towerdefense.ecs.Entity;
+import com.example.towerdefense.ecs.ComponentRegistry;
+import com.example.towerdefense.ecs.EntityQuery;
 import com.example.towerdefense.components.Transform;
 import com.example.towerdefense.components.Tower;
 import com.example.towerdefense.components.Enemy;
 import com.example.towerdefense.components.Path;
-import com.example.towerdefense.components.Health;
 import com.example.towerdefense.systems.MovementSystem;
 import com.example.towerdefense.systems.AttackSystem;
+import com.example.towerdefense.systems.SpatialIndexSystem;
+import com.example.towerdefense.systems.DamageSystem;
+import com.example.towerdefense.systems.ProjectileSystem;
 import com.example.towerdefense.systems.SpawnSystem;
 import com.example.towerdefense.systems.LevelSystem;
 import com.example.towerdefense.managers.ResourceManager;
 import com.example.towerdefense.managers.AudioManager;
-import java.util.ArrayList;
+import com.example.towerdefense.resources.CombatStats;
+import com.example.towerdefense.resources.DamageEvents;
+import com.example.towerdefense.resources.EnemyGrid;
+import com.example.towerdefense.resources.HitScheduler;
+import com.example.towerdefense.resources.PathRegistry;
+import com.example.towerdefense.resources.ProjectileStore;
+import com.example.towerdefense.resources.ScreenMetrics;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Random;
 import java.util.List;
 
@@ -28,6 +42,7 @@ import java.util.List;
 public class GameEngine {
     // ========== 核心游戏组件 ==========
     private final World world;
+    private EntityQuery enemyQuery; // 存活敌人的持久查询，胜利判定每帧读取是否为空，不复制实体列表
     private final Handler gameHandler;
     private Runnable gameLoop;
     private boolean isRunning = false;
@@ -118,6 +133,12 @@ public class GameEngine {
         System.out.println("GameEngine: 创建新游戏引擎，关卡ID: " + levelId);
         this.context = context; // 保存Context引用
         world = new World();
+        // 世界资源：路径注册表由LevelSystem填充，屏幕尺寸由setScreenSize更新
+        world.setResource(PathRegistry.class, new PathRegistry());
+        world.setResource(ScreenMetrics.class, new ScreenMetrics());
+        world.setResource(CombatStats.class, loadCombatStats(context));
+        world.setResource(ProjectileStore.class, new ProjectileStore(ProjectileStore.DEFAULT_CAPACITY));
+        enemyQuery = world.getQuery(ComponentRegistry.maskOf(Enemy.class));
         System.out.println("GameEngine: 创建新世界world");
         gameHandler = new Handler(Looper.getMainLooper());
 
@@ -139,6 +160,31 @@ public class GameEngine {
         initializeGame(levelId);
     }
 
+    /**
+     * 读取战斗数值表 - 先读打包的平衡文件，再读应用私有目录中的覆盖文件（存在时）
+     * 读取失败时保留默认数值，游戏仍可正常进行
+     */
+    private static CombatStats loadCombatStats(Context context) {
+        CombatStats stats = new CombatStats();
+        try (InputStream in = context.getResources().openRawResource(R.raw.combat_stats)) {
+            stats.load(in);
+            System.out.println("GameEngine: 已读取战斗数值平衡文件");
+        } catch (IOException | RuntimeException e) {
+            System.err.println("GameEngine: 读取战斗数值平衡文件失败，使用默认数值: " + e.getMessage());
+        }
+
+        File override = new File(context.getFilesDir(), "combat_stats.properties");
+        if (override.isFile()) {
+            try (InputStream in = new FileInputStream(override)) {
+                stats.load(in);
+                System.out.println("GameEngine: 已应用战斗数值覆盖文件 " + override.getPath());
+            } catch (IOException e) {
+                System.err.println("GameEngine: 读取战斗数值覆盖文件失败: " + e.getMessage());
+            }
+        }
+        return stats;
+    }
+
     /**
      * 完整的游戏初始化
      */
@@ -190,8 +236,10 @@ public class GameEngine {
         isGameWon = false;
         System.out.println("GameEngine: 重置状态变量:\nGameEngine: enemiesReachedEnd = 0\nGameEngine: isGameOver = false\nGameEngine: isRunning = false");
 
-        // 清除所有实体
+        // 清除所有实体、飞行中的弹道和待结算的命中
         world.clearEntities();
+        ProjectileStore.of(world).clear();
+        HitScheduler.of(world).clear();
         System.out.println("GameEngine: 所有实体已清除");
 
         // 重置资源管理器
@@ -259,7 +307,7 @@ public class GameEngine {
         levelSystem.initializeLevel(world);
         // 确保路径实体已经创建
         System.out.println("GameEngine: 关卡路径初始化完成，路径数量: " +
-                world.getEntitiesWithComponent(Path.class).size());
+                world.getResource(PathRegistry.class).size());
     }
 
     /**
@@ -272,15 +320,21 @@ public class GameEngine {
         // 创建系统实例
         spawnSystem = new SpawnSystem();
         movementSystem = new MovementSystem();
+        ProjectileSystem projectileSystem = new ProjectileSystem();
+        DamageSystem damageSystem = new DamageSystem();
+        SpatialIndexSystem spatialIndexSystem = new SpatialIndexSystem();
         AttackSystem attackSystem = new AttackSystem();
         // 设置系统依赖
         attackSystem.setResourceManager(resourceManager);
         attackSystem.setGameEngine(this);
-        spawnSystem.setLevelSystem(levelSystem);
         movementSystem.setGameEngine(this);
+        damageSystem.setGameEngine(this);
         // 添加到世界
         world.addSystem(spawnSystem);
         world.addSystem(movementSystem);
+        world.addSystem(projectileSystem); // 敌人移动后推进弹道，命中只记录伤害事件和落点
+        world.addSystem(spatialIndexSystem); // 敌人移动后重建空间网格，供伤害结算和攻击系统查询
+        world.addSystem(damageSystem); // 统一结算本帧伤害，被击败的敌人在同步点一次性移除
         world.addSystem(attackSystem);
         // 关键修复：立即设置屏幕尺寸给新创建的系统
         if (screenWidth > 0 && screenHeight > 0) {
@@ -390,12 +444,10 @@ public class GameEngine {
         if (isGameOver || isGameWon) return;
 
         // 条件1: 所有波次都已完成
-        boolean allWavesCompleted = spawnSystem.areAllWavesCompleted();
+        if (!spawnSystem.areAllWavesCompleted()) return;
 
         // 条件2: 场上没有存活的敌人
-        boolean noEnemiesRemaining = world.getEntitiesWithComponent(Enemy.class).isEmpty();
-
-        if (allWavesCompleted && noEnemiesRemaining) {
+        if (enemyQuery.isEmpty()) {
             isGameWon = true;
             audioManager.playVictory();
             System.out.println("GameEngine: 游戏胜利！所有敌人都被消灭");
@@ -425,7 +477,7 @@ public class GameEngine {
             Transform transform = entity.getComponent(Transform.class);
             if (transform != null) {
                 float distance = (float) Math.sqrt(
-                        Math.pow(transform.x - x, 2) + Math.pow(transform.y - y, 2)
+                        Math.pow(transform.getX() - x, 2) + Math.pow(transform.getY() - y, 2)
                 );
 
                 if (distance <= clickRadius) {
@@ -485,27 +537,25 @@ public class GameEngine {
         return spawnSystem != null && spawnSystem.isActive();
     }
     /**
-     * 敌人被击败时调用（由AttackSystem调用）
+     * 敌人被击败时调用（由DamageSystem调用）
+     * DamageSystem对每个敌人只结算一次击杀，这里不需要再判断奖励是否已发放
      */
     public void onEnemyDefeated(Enemy enemy) {
         audioManager.playExplosion();
-        if (!enemy.rewardGiven) {
-            // 发放补给奖励
-            resourceManager.addSupply(enemy.reward);
-            enemy.rewardGiven = true;
-
-            System.out.println("GameEngine: 击败敌人 " + enemy.type + "，获得补给:" + enemy.reward);
-            // 只有不是被空袭击杀的敌人才增加计数器
-            if (!enemy.killedByAirStrike) {
-                System.out.println("GameEngine: 敌人不是空袭击杀，增加计数器");
-                incrementAirSupportCounter();
-            } else {
-                System.out.println("GameEngine: 敌人是空袭击杀，不增加计数器");
-            }
-            // 通知监听器
-            if (updateListener != null) {
-                updateListener.onEnemyDefeated(enemy, enemy.reward);
-            }
+        // 发放补给奖励
+        resourceManager.addSupply(enemy.reward);
+
+        System.out.println("GameEngine: 击败敌人 " + enemy.type + "，获得补给:" + enemy.reward);
+        // 只有不是被空袭击杀的敌人才增加计数器
+        if (!enemy.killedByAirStrike) {
+            System.out.println("GameEngine: 敌人不是空袭击杀，增加计数器");
+            incrementAirSupportCounter();
+        } else {
+            System.out.println("GameEngine: 敌人是空袭击杀，不增加计数器");
+        }
+        // 通知监听器
+        if (updateListener != null) {
+            updateListener.onEnemyDefeated(enemy, enemy.reward);
         }
     }
 
@@ -793,6 +843,7 @@ public class GameEngine {
     public void setScreenSize(int width, int height) {
         this.screenWidth = width;
         this.screenHeight = height;
+        world.getResource(ScreenMetrics.class).set(width, height);
 
         System.out.println("GameEngine: 屏幕尺寸设置为 " + width + "x" + height);
 
@@ -801,8 +852,8 @@ public class GameEngine {
             calculateHighlandScreenRect();
         }
 
-        // 验证路径转换
-        validatePathCoordinates();
+        // 屏幕尺寸变化时重新计算所有路径的屏幕坐标缓存
+        updatePathGeometry();
 
         // 传递屏幕尺寸给各个系统
         if (spawnSystem != null) {
@@ -821,15 +872,15 @@ public class GameEngine {
 
 
     /**
-     * 验证路径坐标转换
+     * 更新路径屏幕坐标缓存 - 只在屏幕尺寸变化时调用
      */
-    private void validatePathCoordinates() {
-        List<Entity> paths = world.getEntitiesWithComponent(Path.class);
-        System.out.println("GameEngine: 验证 " + paths.size() + " 条路径");
+    private void updatePathGeometry() {
+        List<Path> paths = world.getResource(PathRegistry.class).getPaths();
+        System.out.println("GameEngine: 更新 " + paths.size() + " 条路径的屏幕坐标");
 
-        for (Entity pathEntity : paths) {
-            Path path = pathEntity.getComponent(Path.class);
-            float[][] screenPoints = path.convertToScreenCoordinates(screenWidth, screenHeight);
+        for (Path path : paths) {
+            path.updateScreenGeometry(screenWidth, screenHeight);
+            float[][] screenPoints = path.getScreenPoints();
             System.out.println("GameEngine: 路径 " + path.getTag() + " 起点: (" +
                     screenPoints[0][0] + ", " + screenPoints[0][1] + ")");
         }
@@ -839,18 +890,16 @@ public class GameEngine {
      * 根据路径标签获取路径的起点位置
      */
     private float[] getPathStartPosition(Path.PathTag pathTag) {
-        // 从世界中找到对应的路径
-        for (Entity entity : world.getEntitiesWithComponent(Path.class)) {
-            Path path = entity.getComponent(Path.class);
-            if (path.getTag() == pathTag) {
-                // 使用路径组件的转换方法
-                float[][] screenPoints = path.convertToScreenCoordinates(screenWidth, screenHeight);
-                if (screenPoints.length > 0) {
-                    float startX = screenPoints[0][0];
-                    float startY = screenPoints[0][1];
-                    System.out.println("GameEngine: 路径 " + pathTag + " 起点: (" + startX + ", " + startY + ")");
-                    return new float[]{startX, startY};
-                }
+        // 按标签直接从路径注册表取路径
+        Path path = world.getResource(PathRegistry.class).get(pathTag);
+        if (path != null) {
+            // 使用路径组件的转换方法
+            float[][] screenPoints = path.convertToScreenCoordinates(screenWidth, screenHeight);
+            if (screenPoints.length > 0) {
+                float startX = screenPoints[0][0];
+                float startY = screenPoints[0][1];
+                System.out.println("GameEngine: 路径 " + pathTag + " 起点: (" + startX + ", " + startY + ")");
+                return new float[]{startX, startY};
             }
         }
 
@@ -961,11 +1010,12 @@ public class GameEngine {
         if (!hasHighlandArea()) return 0;
 
         int count = 0;
-        List<Entity> enemies = world.getEntitiesWithComponent(Enemy.class);
+        // 复用持久查询的成员列表，按下标遍历，每帧不复制列表也不创建迭代器
+        List<Entity> enemies = enemyQuery.getEntities();
 
-        for (Entity enemy : enemies) {
-            Transform transform = enemy.getComponent(Transform.class);
-            if (transform != null && isInHighlandArea(transform.x, transform.y)) {
+        for (int i = 0; i < enemies.size(); i++) {
+            Transform transform = enemies.get(i).getComponent(Transform.TYPE_ID);
+            if (transform != null && isInHighlandArea(transform.getX(), transform.getY())) {
                 count++;
             }
         }
@@ -983,13 +1033,12 @@ public class GameEngine {
     public void checkSystemStatus() {
         System.out.println("=== 系统状态检查 ===");
         System.out.println("GameEngine: 屏幕尺寸=" + screenWidth + "x" + screenHeight);
-        System.out.println("GameEngine: 世界实体数=" + world.getAllEntities().size());
+        System.out.println("GameEngine: 世界实体数=" + world.getEntityCount());
 
         // 检查路径
-        List<Entity> paths = world.getEntitiesWithComponent(Path.class);
+        List<Path> paths = world.getResource(PathRegistry.class).getPaths();
         System.out.println("GameEngine: 路径数量=" + paths.size());
-        for (Entity path : paths) {
-            Path pathComp = path.getComponent(Path.class);
+        for (Path pathComp : paths) {
             System.out.println("  - " + pathComp.getTag() + ": " + pathComp.getPercentagePoints().length + "个点");
         }
 
@@ -999,7 +1048,7 @@ public class GameEngine {
         for (Entity enemy : enemies) {
             Enemy enemyComp = enemy.getComponent(Enemy.class);
             Transform transform = enemy.getComponent(Transform.class);
-            System.out.println("  - " + enemyComp.type + " 位置=(" + transform.x + "," + transform.y +
+            System.out.println("  - " + enemyComp.type + " 位置=(" + transform.getX() + "," + transform.getY() +
                     ") 路径=" + enemyComp.pathTag + " 索引=" + enemyComp.pathIndex);
         }
 
@@ -1024,11 +1073,11 @@ public class GameEngine {
      * 检查指定位置是否在路径上
      */
     private boolean isPositionOnPath(float x, float y) {
-        List<Entity> pathEntities = world.getEntitiesWithComponent(Path.class);
+        List<Path> paths = world.getResource(PathRegistry.class).getPaths();
 
-        for (Entity pathEntity : pathEntities) {
-            Path path = pathEntity.getComponent(Path.class);
-            if (path != null && path.isVisible()) {
+        for (int p = 0; p < paths.size(); p++) {
+            Path path = paths.get(p);
+            if (path.isVisible()) {
                 float[][] screenPoints = path.convertToScreenCoordinates(screenWidth, screenHeight);
                 float pathWidth = path.getPathWidth();
 
@@ -1117,24 +1166,10 @@ public class GameEngine {
                 return false;
             }
 
-            // 3. 资源判定
-            int manpowerCost = 0;
-            int supplyCost = 0;
-
-            switch (type) {
-                case Infantry:
-                    manpowerCost = 10;
-                    supplyCost = 5;
-                    break;
-                case Anti_tank:
-                    manpowerCost = 20;
-                    supplyCost = 15;
-                    break;
-                case Artillery:
-                    manpowerCost = 15;
-                    supplyCost = 10;
-                    break;
-            }
+            // 3. 资源判定（建造成本来自战斗数值表）
+            CombatStats stats = CombatStats.of(world);
+            int manpowerCost = stats.towerManpowerCost[type.ordinal()];
+            int supplyCost = stats.towerSupplyCost[type.ordinal()];
 
             if (!resourceManager.canConsume(manpowerCost, supplyCost)) {
                 System.out.println("GameEngine: 资源不足，无法放置防御塔 " + type);
@@ -1181,44 +1216,19 @@ public class GameEngine {
         Entity tower = world.createEntity();
         tower.addComponent(new Transform(x, y));
 
-        int damage = 0;
-        float range = 0;
-        float innerRange = 0; // 新增：法师塔的内圈范围
-        float attackSpeed = 0;
-
         // 使用与GameView完全一致的方式计算网格大小
-        int gridSize = 60; // 默认值
-        if (screenWidth > 0) {
-            gridSize = (int) (screenWidth * 0.08f);
-            gridSize = Math.max(30, Math.min(gridSize, 100));
-        }
+        int gridSize = ScreenMetrics.computeGridSize(screenWidth);
 
-        System.out.println("GameEngine: 计算网格大小: " + gridSize + "px (屏幕宽度: " + screenWidth + "px)");
+        // 数值来自战斗数值表，射程以网格数为单位
+        CombatStats stats = CombatStats.of(world);
+        int t = type.ordinal();
+        int damage = stats.towerDamage[t];
+        float range = stats.towerRange[t] * gridSize;
+        float innerRange = stats.towerInnerRange[t] * gridSize; // 法师塔的内圈范围，其他塔为0
+        float attackSpeed = stats.towerAttackSpeed[t];
 
-        switch (type) {
-            case Infantry:
-                // 弓箭塔：2格半径，5x5格子的内切圆
-                damage = 10;
-                range = 4 * gridSize; // 2格半径
-                attackSpeed = 1.0f;//攻击速度
-                System.out.println("GameEngine: 弓箭塔攻击范围: " + range + "px (2格半径)");
-                break;
-            case Anti_tank:
-                // 炮塔：1格半径，3x3格子的内切圆
-                damage = 25;
-                range = 2 * gridSize; // 1格半径
-                attackSpeed = 0.5f;
-                System.out.println("GameEngine: 炮塔攻击范围: " + range + "px (1格半径)");
-                break;
-            case Artillery:
-                // 法师塔：圆环攻击范围，内圈1.5格，外圈3格
-                damage = 50;
-                innerRange = 3f * gridSize; // 内圈半径（1.5格）
-                range = 6 * gridSize; // 外圈半径（3格）
-                attackSpeed = 0.1f;
-                System.out.println("GameEngine: 法师塔攻击范围: 内圈" + innerRange + "px, 外圈" + range + "px");
-                break;
-        }
+        System.out.println("GameEngine: 建造 " + type + "，网格大小: " + gridSize + "px，攻击范围: 内圈"
+                + innerRange + "px, 外圈" + range + "px");
 
         // 创建防御塔组件
         Tower towerComponent = new Tower(type, damage, range, attackSpeed, manpowerCost, supplyCost, innerRange);
@@ -1290,11 +1300,7 @@ public class GameEngine {
 
 
         // 计算轰炸区域
-        int gridSize = 60; // 默认网格大小
-        if (screenWidth > 0) {
-            gridSize = (int) (screenWidth * 0.08f);
-            gridSize = Math.max(30, Math.min(gridSize, 100));
-        }
+        int gridSize = ScreenMetrics.computeGridSize(screenWidth);
 
         float left = x - 2 * gridSize;
         float right = x + 3 * gridSize; // 共5格宽度
@@ -1320,67 +1326,23 @@ public class GameEngine {
 
     /**
      * 对指定区域内的敌人造成伤害
+     * 通过敌人网格只访问与轰炸区域重叠的单元格（网格在上一帧敌人移动后重建，帧间敌人位置不变）；
+     * 伤害以事件形式记录，击杀在下一帧由DamageSystem统一结算并一次性移除
      */
     private void dealDamageToEnemiesInArea(float left, float top, float right, float bottom, int damage) {
-        List<Entity> enemies = world.getEntitiesWithComponent(Enemy.class);
-        int affectedCount = 0;
-        int totalEnemies = enemies.size();
-
-        System.out.println("💥 GameEngine: 开始处理轰炸区域内的敌人");
-        System.out.println("💥 GameEngine: 轰炸区域: 左" + left + " 右" + right + " 上" + top + " 下" + bottom);
-        System.out.println("💥 GameEngine: 总敌人数量: " + totalEnemies);
-        System.out.println("💥 GameEngine: 使用伤害值: " + damage);
-
-        for (Entity enemy : enemies) {
-            Transform transform = enemy.getComponent(Transform.class);
-            if (transform != null) {
-                boolean inArea = transform.x >= left && transform.x <= right &&
-                        transform.y >= top && transform.y <= bottom;
-
-                System.out.println("💥 GameEngine: 检查敌人 - 位置: (" + transform.x + ", " + transform.y + "), 在区域内: " + inArea);
-
-                if (inArea) {
-                    Enemy enemyComp = enemy.getComponent(Enemy.class);
-                    Health health = enemy.getComponent(Health.class);
+        EnemyGrid enemyGrid = EnemyGrid.of(world);
+        DamageEvents damageEvents = DamageEvents.of(world);
+        int eventsBefore = damageEvents.size();
 
-                    if (health != null && enemyComp != null) {
-                        System.out.println("💥 GameEngine: 轰炸前敌人生命值: " + health.current + "/" + health.max);
+        System.out.println("💥 GameEngine: 轰炸区域: 左" + left + " 右" + right + " 上" + top + " 下" + bottom + "，伤害值: " + damage);
 
+        // 不做防御塔类型修正，被击杀的敌人标记为空袭击杀
+        enemyGrid.queryRect(left, top, right, bottom, (enemy, distanceSq) -> {
+            damageEvents.add(enemy.getId(), damage, null, DamageEvents.FLAG_AIR_STRIKE);
+            return true;
+        });
 
-                        // 使用伤害值而不是直接设置为0
-                        health.current -= damage;
-                        if (health.current < 0) {
-                            health.current = 0;
-                            // 标记这个敌人是被空袭击杀的
-                            enemyComp.killedByAirStrike = true;
-                            System.out.println("💥 GameEngine: 标记敌人为空袭击杀");
-                        }
-
-                        System.out.println("💥 GameEngine: 轰炸后敌人生命值: " + health.current + "/" + health.max);
-                        affectedCount++;
-
-                        // 如果敌人死亡，触发被击败逻辑
-                        if (health.current <= 0 && !enemyComp.rewardGiven) {
-                            System.out.println("💥 GameEngine: 敌人被空袭击杀，触发被击败逻辑");
-                            onEnemyDefeated(enemyComp);
-                        } else if (health.current <= 0) {
-                            System.out.println("💥 GameEngine: 敌人被空袭击杀，但奖励已发放");
-                        }
-                    } else {
-                        System.out.println("💥 GameEngine: 错误 - 敌人的Health或Enemy组件为null");
-                    }
-                }
-            } else {
-                System.out.println("💥 GameEngine: 错误 - 敌人的Transform组件为null");
-            }
-        }
-
-        System.out.println("💥 GameEngine: 空军轰炸影响 " + affectedCount + " 个敌人");
-        // 清理死亡的敌人
-        cleanupDeadEnemies();
-        // 额外检查：轰炸后剩余的敌人数量
-        int remainingEnemies = world.getEntitiesWithComponent(Enemy.class).size();
-        System.out.println("💥 GameEngine: 轰炸后剩余敌人数量: " + remainingEnemies);
+        System.out.println("💥 GameEngine: 空军轰炸影响 " + (damageEvents.size() - eventsBefore) + " 个敌人");
     }
     // 添加获取空军支援状态的方法
     public int getAirSupportCounter() {
@@ -1417,29 +1379,6 @@ public class GameEngine {
             );
         }
     }
-    /**
-     * 清理死亡的敌人
-     */
-    private void cleanupDeadEnemies() {
-        List<Entity> enemies = world.getEntitiesWithComponent(Enemy.class);
-        List<Entity> deadEnemies = new ArrayList<>();
-
-        for (Entity enemy : enemies) {
-            Health health = enemy.getComponent(Health.class);
-            if (health != null && health.current <= 0) {
-                deadEnemies.add(enemy);
-            }
-        }
-
-        for (Entity deadEnemy : deadEnemies) {
-            world.removeEntity(deadEnemy);
-            System.out.println("🧹 GameEngine: 清理死亡敌人");
-        }
-
-        if (!deadEnemies.isEmpty()) {
-            System.out.println("🧹 GameEngine: 共清理 " + deadEnemies.size() + " 个死亡敌人");
-        }
-    }
     // =====================================================================
     // Getter和Setter方法
     // =====================================================================
@@ -1,13 +1,20 @@
 package com.example.towerdefense.components;
 
 import com.example.towerdefense.ecs.Component;
+import com.example.towerdefense.ecs.ComponentRegistry;
+import com.example.towerdefense.ecs.Poolable;
 
 /**
  * 敌人组件 - 定义敌人的属性和行为特征
  * 实现Component接口，作为ECS架构中的数据组件
  * 包含敌人类型、移动速度、击败奖励和路径跟踪信息
  */
-public class Enemy implements Component {
+public class Enemy implements Component, Poolable {
+    /**
+     * 组件类型ID - 热路径中用 entity.getComponent(Enemy.TYPE_ID) 按数组下标访问
+     */
+    public static final int TYPE_ID = ComponentRegistry.register(Enemy.class);
+
     /**
      * 敌人类型枚举 - 定义游戏中不同类型的敌人
      */
@@ -21,13 +28,11 @@ public class Enemy implements Component {
     public Type type;      // 敌人类型
     public float speed;    // 移动速度（像素/秒）
     public int reward;     // 击败后奖励的金币数
-    public int pathIndex;  // 当前路径点索引，用于路径跟踪
+    public int pathIndex;  // 当前所在路径线段的索引（线段i连接路径点i和i+1），用于加速弧长查找
+    public float distanceAlongPath; // 从路径起点沿路径前进的距离（像素），决定敌人位置，也是敌人的行进进度
     // 新增：标记是否被空袭击杀
     public boolean killedByAirStrike = false;
     public Path.PathTag pathTag;
-
-    // 新增：是否已发放奖励（避免重复发放）
-    public boolean rewardGiven = false;
     /**
      * 原始速度 - 用于高地减速后恢复
      */
@@ -52,13 +57,46 @@ public class Enemy implements Component {
     }
      */
     public Enemy(Type type, float speed, int reward, Path.PathTag pathTag) {
+        init(type, speed, reward, pathTag);
+    }
+
+    /**
+     * 构造函数 - 供对象池创建空组件，取出后再调用init设置
+     */
+    public Enemy() {
+    }
+
+    /**
+     * 初始化敌人属性 - 构造函数和对象池复用共用
+     * @return 自身，便于链式调用
+     */
+    public Enemy init(Type type, float speed, int reward, Path.PathTag pathTag) {
         this.type = type;
         this.speed = speed;
         this.reward = reward;
         this.pathIndex = 0; // 从第一个路径点开始移动
+        this.distanceAlongPath = 0;
         this.pathTag = pathTag;
-        this.rewardGiven = false;
+        this.killedByAirStrike = false;
+        this.isInHighland = false;
         this.originalSpeed = speed; // 保存原始速度
+        return this;
+    }
+
+    /**
+     * 重置敌人状态 - 回收到对象池时调用，清除路径进度和击杀标记
+     */
+    @Override
+    public void reset() {
+        type = null;
+        speed = 0;
+        reward = 0;
+        pathIndex = 0;
+        distanceAlongPath = 0;
+        pathTag = null;
+        killedByAirStrike = false;
+        originalSpeed = 0;
+        isInHighland = false;
     }
     // ========== Getter 方法 ==========
     // 提供封装访问，虽然字段是public，但getter提供了更好的API设计
@@ -89,12 +127,20 @@ public class Enemy implements Component {
 
     /**
      * 获取当前路径索引
-     * @return 当前目标路径点的索引
+     * @return 当前所在路径线段的索引
      */
     public int getPathIndex() {
         return pathIndex;
     }
 
+    /**
+     * 获取沿路径前进的距离
+     * @return 从路径起点算起的距离（像素），越大表示越接近终点
+     */
+    public float getDistanceAlongPath() {
+        return distanceAlongPath;
+    }
+
     // ========== Setter 方法 ==========
     // 提供修改字段值的方法，支持数据封装和验证
 
@@ -124,50 +170,9 @@ public class Enemy implements Component {
 
     /**
      * 设置路径索引
-     * @param pathIndex 新的路径点索引
+     * @param pathIndex 新的路径线段索引
      */
     public void setPathIndex(int pathIndex) {
         this.pathIndex = pathIndex;
     }
-    public void setRewardGiven(boolean rewardGiven) { this.rewardGiven = rewardGiven; }
-    /**
-     * 根据防御塔类型计算伤害修正
-     * @param towerType 防御塔类型
-     * @param baseDamage 基础伤害
-     * @return 修正后的伤害
-     */
-    public int calculateAdjustedDamage(Tower.Type towerType, int baseDamage) {
-        float multiplier = 1.0f; // 默认伤害倍率
-
-        switch (this.type) {
-            case Vehicle:
-                // 哥布林：受到所有伤害均为125%
-                multiplier = 1.25f;
-                break;
-
-            case Infantry:
-                // 兽人：受到的伤害没有修正，为100%
-                multiplier = 1.0f;
-                break;
-
-            case Armour:
-                // 巨魔：受到125%来自炮塔和魔法塔的伤害，受到50%来自弓箭塔的伤害
-                switch (towerType) {
-                    case Anti_tank:
-                    case Artillery:
-                        multiplier = 1.25f; // 炮塔和魔法塔造成125%伤害
-                        break;
-                    case Infantry:
-                        multiplier = 0.5f; // 弓箭塔造成50%伤害
-                        break;
-                }
-                break;
-        }
-
-        int adjustedDamage = (int)(baseDamage * multiplier);
-        System.out.println("Enemy: " + this.type + " 受到 " + towerType + " 攻击，伤害修正: " +
-                multiplier + "x, 基础伤害: " + baseDamage + ", 实际伤害: " + adjustedDamage);
-
-        return adjustedDamage;
-    }
 }
\ No newline at end of file
@@ -1,13 +1,20 @@
 package com.example.towerdefense.components;
 
 import com.example.towerdefense.ecs.Component;
+import com.example.towerdefense.ecs.ComponentRegistry;
+import com.example.towerdefense.ecs.Poolable;
 
 /**
  * 生命值组件 - 管理游戏实体的生命值状态
  * 实现Component接口，用于敌人、建筑或其他需要生命值管理的实体
  * 提供生命值跟踪、伤害处理、存活状态检查等功能
  */
-public class Health implements Component {
+public class Health implements Component, Poolable {
+    /**
+     * 组件类型ID - 热路径中用 entity.getComponent(Health.TYPE_ID) 按数组下标访问
+     */
+    public static final int TYPE_ID = ComponentRegistry.register(Health.class);
+
     /**
      * 当前生命值 - 实体的当前生命值状态
      * 当值为0时，实体被认为已死亡
@@ -25,8 +32,33 @@ public class Health implements Component {
      * @param max 最大生命值，同时设置当前生命值为该最大值
      */
     public Health(int max) {
+        init(max);
+    }
+
+    /**
+     * 构造函数 - 供对象池创建空组件，取出后再调用init设置
+     */
+    public Health() {
+    }
+
+    /**
+     * 初始化生命值 - 构造函数和对象池复用共用
+     * @param max 最大生命值，同时设置当前生命值为该最大值
+     * @return 自身，便于链式调用
+     */
+    public Health init(int max) {
         this.max = max;
         this.current = max; // 初始状态下生命值为满值
+        return this;
+    }
+
+    /**
+     * 重置生命值 - 回收到对象池时调用
+     */
+    @Override
+    public void reset() {
+        current = 0;
+        max = 0;
     }
 
     // ========== Getter 方法 ==========
@@ -1,12 +1,18 @@
 package com.example.towerdefense.components;
 
 import com.example.towerdefense.ecs.Component;
+import com.example.towerdefense.ecs.ComponentRegistry;
 
 /**
  * 路径组件 - 定义游戏中的移动路径
  * 使用百分比坐标系统，便于适配不同屏幕尺寸
  */
 public class Path implements Component {
+    /**
+     * 组件类型ID - 热路径中用 entity.getComponent(Path.TYPE_ID) 按数组下标访问
+     */
+    public static final int TYPE_ID = ComponentRegistry.register(Path.class);
+
     /**
      * 路径标签枚举 - 标识不同路径
      */
@@ -38,29 +44,151 @@ public class Path implements Component {
         this.isVisible = true;
     }
 
+    // ========== 屏幕坐标缓存 ==========
+    // 只在屏幕尺寸变化时重新计算（见GameEngine.setScreenSize），逐帧读取不再分配内存
+    private float cachedWidth = -1;
+    private float cachedHeight = -1;
+    private float[][] screenPoints;      // 屏幕坐标点 [[x, y], ...]
+    private float[] segmentLengths;      // 第i段（点i到点i+1）的长度
+    private float[] cumulativeLengths;   // 从起点沿路径到点i的累计长度，cumulativeLengths[0] = 0
+    private float totalLength;           // 路径总长度
+
     /**
-     * 将百分比坐标转换为实际屏幕坐标
+     * 按屏幕尺寸更新缓存的屏幕坐标、线段长度和累计弧长 - 尺寸未变化时直接返回
      * @param screenWidth 屏幕宽度
      * @param screenHeight 屏幕高度
-     * @return 实际坐标点数组
      */
-    public float[][] convertToScreenCoordinates(float screenWidth, float screenHeight) {
-        System.out.println("Path: 转换坐标，屏幕尺寸=" + screenWidth + "x" + screenHeight);
+    public void updateScreenGeometry(float screenWidth, float screenHeight) {
+        if (screenPoints != null && screenWidth == cachedWidth && screenHeight == cachedHeight) {
+            return;
+        }
 
-        float[][] screenPoints = new float[percentagePoints.length][2];
+        int count = percentagePoints.length;
+        screenPoints = new float[count][2];
+        segmentLengths = new float[Math.max(count - 1, 0)];
+        cumulativeLengths = new float[count];
+        totalLength = 0;
 
-        for (int i = 0; i < percentagePoints.length; i++) {
+        for (int i = 0; i < count; i++) {
             screenPoints[i][0] = percentagePoints[i][0] * screenWidth;
             screenPoints[i][1] = percentagePoints[i][1] * screenHeight;
+            if (i > 0) {
+                float dx = screenPoints[i][0] - screenPoints[i - 1][0];
+                float dy = screenPoints[i][1] - screenPoints[i - 1][1];
+                segmentLengths[i - 1] = (float) Math.sqrt(dx * dx + dy * dy);
+                totalLength += segmentLengths[i - 1];
+            }
+            cumulativeLengths[i] = totalLength;
+        }
 
-            System.out.println("Path: 点" + i + ": " + percentagePoints[i][0] + "," + percentagePoints[i][1] +
-                    " -> " + screenPoints[i][0] + "," + screenPoints[i][1]);
+        cachedWidth = screenWidth;
+        cachedHeight = screenHeight;
+        System.out.println("Path: " + tag + " 屏幕坐标已更新，屏幕尺寸=" + screenWidth + "x" + screenHeight +
+                "，点数=" + count + "，总长度=" + totalLength);
+    }
 
-        }
+    /**
+     * 将百分比坐标转换为实际屏幕坐标
+     * @param screenWidth 屏幕宽度
+     * @param screenHeight 屏幕高度
+     * @return 实际坐标点数组 - 返回的是缓存数组，调用方不能修改
+     *
+     * 屏幕尺寸与缓存一致时不做任何计算
+     */
+    public float[][] convertToScreenCoordinates(float screenWidth, float screenHeight) {
+        updateScreenGeometry(screenWidth, screenHeight);
+        return screenPoints;
+    }
 
+    /**
+     * 获取缓存的屏幕坐标点 - 需先调用updateScreenGeometry，调用方不能修改
+     */
+    public float[][] getScreenPoints() {
         return screenPoints;
     }
 
+    /**
+     * 获取线段数量
+     */
+    public int getSegmentCount() {
+        return segmentLengths != null ? segmentLengths.length : 0;
+    }
+
+    /**
+     * 获取第i段（点i到点i+1）的屏幕长度 - 需先调用updateScreenGeometry
+     */
+    public float getSegmentLength(int segment) {
+        return segmentLengths[segment];
+    }
+
+    /**
+     * 获取从起点沿路径到点i的累计长度 - 需先调用updateScreenGeometry
+     */
+    public float getCumulativeLength(int pointIndex) {
+        return cumulativeLengths[pointIndex];
+    }
+
+    /**
+     * 获取路径的屏幕总长度 - 需先调用updateScreenGeometry
+     */
+    public float getTotalLength() {
+        return totalLength;
+    }
+
+    // ========== 弧长参数化 ==========
+
+    /**
+     * 查找弧长所在的线段 - 从提示线段开始向前查找，敌人逐帧前进时通常只需比较一次
+     * @param distance 从起点沿路径的距离，应在 0 ~ getTotalLength() 之间
+     * @param hint 上一次所在的线段（例如 Enemy.pathIndex）
+     * @return 线段序号 i，满足 cumulativeLengths[i] <= distance <= cumulativeLengths[i + 1]
+     */
+    public int findSegment(float distance, int hint) {
+        int last = segmentLengths.length - 1;
+        int segment = Math.max(0, Math.min(hint, last));
+        while (segment > 0 && distance < cumulativeLengths[segment]) {
+            segment--;
+        }
+        while (segment < last && distance > cumulativeLengths[segment + 1]) {
+            segment++;
+        }
+        return segment;
+    }
+
+    /**
+     * 计算线段上指定弧长处的X坐标
+     * @param segment findSegment返回的线段序号
+     * @param distance 从起点沿路径的距离
+     */
+    public float getXAt(int segment, float distance) {
+        return lerp(screenPoints[segment][0], screenPoints[segment + 1][0], segmentFraction(segment, distance));
+    }
+
+    /**
+     * 计算线段上指定弧长处的Y坐标
+     * @param segment findSegment返回的线段序号
+     * @param distance 从起点沿路径的距离
+     */
+    public float getYAt(int segment, float distance) {
+        return lerp(screenPoints[segment][1], screenPoints[segment + 1][1], segmentFraction(segment, distance));
+    }
+
+    /**
+     * 弧长在线段内的比例 [0, 1]，长度为0的线段返回0
+     */
+    private float segmentFraction(int segment, float distance) {
+        float length = segmentLengths[segment];
+        if (length <= 0) {
+            return 0;
+        }
+        float t = (distance - cumulativeLengths[segment]) / length;
+        return Math.max(0f, Math.min(t, 1f));
+    }
+
+    private static float lerp(float from, float to, float t) {
+        return from + (to - from) * t;
+    }
+
     // Getter 方法
     public PathTag getTag() { return tag; }
     public float[][] getPercentagePoints() { return percentagePoints; }
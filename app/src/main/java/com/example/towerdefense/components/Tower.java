@@ -1,6 +1,8 @@
 package com.example.towerdefense.components;
 
 import com.example.towerdefense.ecs.Component;
+import com.example.towerdefense.ecs.ComponentRegistry;
+import com.example.towerdefense.ecs.EntityHandle;
 
 /**
  * 防御塔组件 - 定义防御塔的属性和战斗特性
@@ -8,6 +10,11 @@ import com.example.towerdefense.ecs.Component;
  * 包含塔的类型、伤害、攻击范围、攻击速度等战斗属性
  */
 public class Tower implements Component {
+    /**
+     * 组件类型ID - 热路径中用 entity.getComponent(Tower.TYPE_ID) 按数组下标访问
+     */
+    public static final int TYPE_ID = ComponentRegistry.register(Tower.class);
+
     /**
      * 防御塔类型枚举 - 定义游戏中不同类型的防御塔
      */
@@ -17,6 +24,17 @@ public class Tower implements Component {
         Artillery    // 法师塔：中等伤害，长射程
     }
 
+    /**
+     * 目标优先级枚举 - 决定防御塔在射程内有多个敌人时攻击哪一个
+     */
+    public enum TargetMode {
+        First,     // 最前：沿路径走得最远的敌人
+        Last,      // 最后：沿路径走得最近的敌人
+        Strongest, // 最强：当前生命值最高的敌人
+        Weakest,   // 最弱：当前生命值最低的敌人
+        Closest    // 最近：离防御塔最近的敌人
+    }
+
     // 公共字段 - 在ECS架构中通常直接访问以提高性能
 
     /**
@@ -40,10 +58,21 @@ public class Tower implements Component {
     public float attackSpeed;
 
     /**
-     * 最后攻击时间 - 上次攻击的时间戳（毫秒）
-     * 用于计算攻击冷却时间
+     * 下次可以攻击的模拟时间（秒，见World.getTime）
+     * 攻击后设为当前模拟时间加攻击间隔；游戏暂停时模拟时间不前进，冷却也随之暂停
+     */
+    public double nextAttackTime;
+
+    /**
+     * 目标优先级 - 默认攻击沿路径走得最远的敌人
+     */
+    public TargetMode targetMode = TargetMode.First;
+
+    /**
+     * 锁定目标的实体句柄 - 目标仍存活且仍在射程内时继续攻击它，不重新搜索
+     * 目标被销毁后句柄的代数不再匹配，world.getEntity返回null
      */
-    public long lastAttackTime;
+    public int targetId = EntityHandle.NULL;
 
     // 新增：资源消耗
     public int manpowerCost;
@@ -61,7 +90,7 @@ public class Tower implements Component {
         this.damage = damage;
         this.range = range;
         this.attackSpeed = attackSpeed;
-        this.lastAttackTime = 0; // 初始化为0，表示可以立即攻击
+        this.nextAttackTime = 0; // 初始化为0，表示可以立即攻击
         this.manpowerCost = manpowerCost;
         this.supplyCost = supplyCost;
         this.innerRange = innerRange;
@@ -105,39 +134,61 @@ public class Tower implements Component {
     }
 
     /**
-     * 获取最后攻击时间
-     * @return 上次攻击的时间戳（毫秒）
+     * 获取下次可以攻击的时间
+     * @return 下次可以攻击的模拟时间（秒）
      */
-    public long getLastAttackTime() {
-        return lastAttackTime;
+    public double getNextAttackTime() {
+        return nextAttackTime;
+    }
+
+    /**
+     * 获取攻击间隔
+     * @return 两次攻击之间的冷却时间（秒）= 1 / 每秒攻击次数
+     */
+    public float getAttackInterval() {
+        return 1f / attackSpeed;
     }
 
     // ========== Setter 方法 ==========
 
     /**
-     * 设置最后攻击时间
-     * @param lastAttackTime 新的最后攻击时间戳
-     * 在攻击后由AttackSystem调用，记录攻击时间
+     * 记录一次攻击，开始冷却
+     * @param time 攻击发生的模拟时间（秒）
+     * 在攻击后由AttackSystem调用
+     */
+    public void onAttack(double time) {
+        this.nextAttackTime = time + getAttackInterval();
+    }
+
+    /**
+     * 设置目标优先级
+     * @param targetMode 新的目标优先级，为null时恢复默认的最前优先
      */
-    public void setLastAttackTime(long lastAttackTime) {
-        this.lastAttackTime = lastAttackTime;
+    public void setTargetMode(TargetMode targetMode) {
+        this.targetMode = targetMode != null ? targetMode : TargetMode.First;
+        this.targetId = EntityHandle.NULL; // 优先级改变后按新优先级重新选择目标
     }
     public float innerRange; // 法师塔的内圈范围，其他塔为0
     // ========== 业务逻辑方法 ==========
 
     /**
      * 检查塔是否可以攻击
-     * @param currentTime 当前时间戳（毫秒）
+     * @param time 当前模拟时间（秒）
      * @return true如果攻击冷却时间已过，可以发起攻击
      */
-    public boolean canAttack(long currentTime) {
-        // 计算攻击间隔（毫秒）= 1000毫秒 / 每秒攻击次数
-        long attackInterval = (long)(1000 / attackSpeed);
-        // 检查距离上次攻击是否已经过了足够的冷却时间
-        return currentTime - lastAttackTime >= attackInterval;
+    public boolean canAttack(double time) {
+        return time >= nextAttackTime;
     }
     //=================Getter方法=======================
     public float getInnerRange() {
         return innerRange;
     }
+
+    public TargetMode getTargetMode() {
+        return targetMode;
+    }
+
+    public int getTargetId() {
+        return targetId;
+    }
 }
\ No newline at end of file
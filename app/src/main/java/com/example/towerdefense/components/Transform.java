@@ -1,24 +1,36 @@
 package com.example.towerdefense.components;
 
-import com.example.towerdefense.ecs.Component;
+import com.example.towerdefense.ecs.ComponentRegistry;
+import com.example.towerdefense.ecs.Poolable;
+import com.example.towerdefense.ecs.PositionStore;
 
 /**
  * 变换组件 - 表示实体在游戏世界中的位置信息
  * 实现Component接口，是ECS架构中最基础且最常用的组件
  * 几乎所有可见的实体都需要此组件来定义其位置
+ *
+ * 存储方式：加入世界中的实体后，坐标保存在世界的位置列存储（PositionStore）中，
+ * 本对象只作为访问器，通过 getX/getY/setX/setY/translate 读写
  */
-public class Transform implements Component {
+public class Transform implements PositionStore.Binding, Poolable {
     /**
-     * X坐标 - 实体在游戏世界中的水平位置
-     * 使用float类型提供足够的位置精度
+     * 组件类型ID - 热路径中用 entity.getComponent(Transform.TYPE_ID) 按数组下标访问
+     */
+    public static final int TYPE_ID = ComponentRegistry.register(Transform.class);
+
+    /**
+     * 所属世界的位置列存储 - 组件未加入世界中的实体时为null
+     * 绑定后坐标保存在 store.x[index] / store.y[index] 中，本对象只作为访问器
      */
-    public float x;
+    private PositionStore store;
+    private int index;
 
     /**
-     * Y坐标 - 实体在游戏世界中的垂直位置
+     * 未绑定时的坐标 - 解除绑定时从位置列拷回
      * 使用float类型提供足够的位置精度
      */
-    public float y;
+    private float x;
+    private float y;
 
     /**
      * 构造函数 - 初始化变换组件的位置
@@ -30,6 +42,12 @@ public class Transform implements Component {
         this.y = y;
     }
 
+    /**
+     * 构造函数 - 供对象池创建位于原点的组件，取出后再调用set设置位置
+     */
+    public Transform() {
+    }
+
     // ========== Getter 方法 ==========
 
     /**
@@ -37,7 +55,7 @@ public class Transform implements Component {
      * @return 当前的X坐标值
      */
     public float getX() {
-        return x;
+        return store != null ? store.x[index] : x;
     }
 
     /**
@@ -45,7 +63,7 @@ public class Transform implements Component {
      * @return 当前的Y坐标值
      */
     public float getY() {
-        return y;
+        return store != null ? store.y[index] : y;
     }
 
     // ========== Setter 方法 ==========
@@ -55,7 +73,11 @@ public class Transform implements Component {
      * @param x 新的X坐标值
      */
     public void setX(float x) {
-        this.x = x;
+        if (store != null) {
+            store.x[index] = x;
+        } else {
+            this.x = x;
+        }
     }
 
     /**
@@ -63,7 +85,69 @@ public class Transform implements Component {
      * @param y 新的Y坐标值
      */
     public void setY(float y) {
-        this.y = y;
+        if (store != null) {
+            store.y[index] = y;
+        } else {
+            this.y = y;
+        }
+    }
+
+    /**
+     * 同时设置X、Y坐标
+     */
+    public void set(float x, float y) {
+        setX(x);
+        setY(y);
+    }
+
+    /**
+     * 平移 - 移动系统每帧调用
+     * @param dx X方向位移
+     * @param dy Y方向位移
+     */
+    public void translate(float dx, float dy) {
+        if (store != null) {
+            store.x[index] += dx;
+            store.y[index] += dy;
+        } else {
+            x += dx;
+            y += dy;
+        }
+    }
+
+    // ========== 位置列绑定 ==========
+
+    /**
+     * 绑定到世界的位置列 - 由World在组件加入实体时调用，不应在游戏代码中直接调用
+     */
+    @Override
+    public void bind(PositionStore store, int index) {
+        store.x[index] = x;
+        store.y[index] = y;
+        this.store = store;
+        this.index = index;
+    }
+
+    /**
+     * 解除绑定 - 由World在组件离开实体或实体被销毁时调用
+     */
+    @Override
+    public void unbind() {
+        if (store != null) {
+            x = store.x[index];
+            y = store.y[index];
+            store = null;
+        }
+    }
+
+    /**
+     * 重置到原点 - 回收到对象池时调用（此时已解除绑定）
+     */
+    @Override
+    public void reset() {
+        store = null;
+        x = 0;
+        y = 0;
     }
 
     // ========== 业务逻辑方法 ==========
@@ -75,8 +159,8 @@ public class Transform implements Component {
      * @return 两个位置之间的直线距离
      */
     public float distanceTo(Transform other) {
-        float dx = x - other.x;
-        float dy = y - other.y;
+        float dx = getX() - other.getX();
+        float dy = getY() - other.getY();
         return (float) Math.sqrt(dx * dx + dy * dy);
     }
 }
\ No newline at end of file
@@ -0,0 +1,196 @@
+package com.example.towerdefense.ecs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 原型表 - 存放组件集合完全相同的所有实体
+ *
+ * 设计理念：
+ * - 原型 = 组件掩码 + 按数据块组织的实体和组件列
+ * - 实体增删组件时在原型之间迁移，原型本身的组件集合永不改变
+ * - 行号连续：删除时用最后一行填补空位（swap-remove），保持紧密排列
+ *
+ * 行号到存储位置：块号 = row >> SHIFT，块内行号 = row & MASK
+ */
+final class Archetype {
+    /**
+     * 组件掩码 - 本原型包含的组件类型集合
+     */
+    final long mask;
+
+    /**
+     * 本原型包含的组件类型ID，按升序排列，下标即列号
+     */
+    final int[] typeIds;
+
+    /**
+     * 类型ID到列号的映射 - 不属于本原型的类型为-1
+     */
+    final int[] columnOf;
+
+    /**
+     * 数据块列表 - 除最后一块外都是满的
+     */
+    final List<ArchetypeChunk> chunks;
+
+    /**
+     * 原型中的实体总数
+     */
+    int size;
+
+    /**
+     * 匹配本原型的持久查询 - 成员变化时通知它们重建成员列表
+     */
+    final List<EntityQuery> queries;
+
+    /**
+     * 迁移缓存 - 添加/移除某类型组件后到达的原型，避免重复查表
+     * 下标为组件类型ID
+     */
+    private final Archetype[] addEdges;
+    private final Archetype[] removeEdges;
+
+    Archetype(long mask) {
+        this.mask = mask;
+        this.typeIds = new int[Long.bitCount(mask)];
+        this.columnOf = new int[ComponentRegistry.MAX_TYPES];
+        Arrays.fill(columnOf, -1);
+
+        int column = 0;
+        long remaining = mask;
+        while (remaining != 0) {
+            int typeId = Long.numberOfTrailingZeros(remaining);
+            typeIds[column] = typeId;
+            columnOf[typeId] = column;
+            column++;
+            remaining &= remaining - 1;
+        }
+
+        this.chunks = new ArrayList<>();
+        this.size = 0;
+        this.queries = new ArrayList<>();
+        this.addEdges = new Archetype[ComponentRegistry.MAX_TYPES];
+        this.removeEdges = new Archetype[ComponentRegistry.MAX_TYPES];
+    }
+
+    /**
+     * 检查本原型是否包含掩码中的全部组件
+     */
+    boolean matches(long required) {
+        return (mask & required) == required;
+    }
+
+    /**
+     * 获取指定行的实体
+     */
+    Entity getEntity(int row) {
+        return chunks.get(row >> ArchetypeChunk.SHIFT).entities[row & ArchetypeChunk.MASK];
+    }
+
+    /**
+     * 将实体追加到原型末尾，组件从实体自身的组件数组中复制
+     * @param entity 要加入的实体，其组件掩码必须等于本原型掩码
+     * @return 实体在本原型中的行号
+     */
+    int add(Entity entity) {
+        int row = size;
+        int chunkIndex = row >> ArchetypeChunk.SHIFT;
+        if (chunkIndex == chunks.size()) {
+            chunks.add(new ArchetypeChunk(typeIds.length));
+        }
+
+        ArchetypeChunk chunk = chunks.get(chunkIndex);
+        int local = row & ArchetypeChunk.MASK;
+        chunk.entities[local] = entity;
+        for (int column = 0; column < typeIds.length; column++) {
+            chunk.columns[column][local] = entity.getComponent(typeIds[column]);
+        }
+        chunk.count++;
+        size++;
+        notifyQueries();
+        return row;
+    }
+
+    /**
+     * 替换指定行中某类型的组件（实体覆盖同类型组件时调用）
+     */
+    void set(int row, int typeId, Component component) {
+        ArchetypeChunk chunk = chunks.get(row >> ArchetypeChunk.SHIFT);
+        chunk.columns[columnOf[typeId]][row & ArchetypeChunk.MASK] = component;
+    }
+
+    /**
+     * 移除指定行 - 用最后一行填补空位
+     * @param row 要移除的行号
+     * @return 被移动到该行的实体；如果移除的就是最后一行则返回null
+     *         调用方负责更新被移动实体记录的行号
+     */
+    Entity remove(int row) {
+        int last = size - 1;
+        ArchetypeChunk lastChunk = chunks.get(last >> ArchetypeChunk.SHIFT);
+        int lastLocal = last & ArchetypeChunk.MASK;
+
+        Entity moved = null;
+        if (row != last) {
+            ArchetypeChunk chunk = chunks.get(row >> ArchetypeChunk.SHIFT);
+            int local = row & ArchetypeChunk.MASK;
+            moved = lastChunk.entities[lastLocal];
+            chunk.entities[local] = moved;
+            for (int column = 0; column < typeIds.length; column++) {
+                chunk.columns[column][local] = lastChunk.columns[column][lastLocal];
+            }
+        }
+
+        // 清空最后一行，避免持有已移除实体和组件的引用
+        lastChunk.entities[lastLocal] = null;
+        for (int column = 0; column < typeIds.length; column++) {
+            lastChunk.columns[column][lastLocal] = null;
+        }
+        lastChunk.count--;
+        size--;
+        notifyQueries();
+        return moved;
+    }
+
+    /**
+     * 清空原型中的所有实体，保留已分配的数据块以便复用
+     */
+    void clear() {
+        for (ArchetypeChunk chunk : chunks) {
+            Arrays.fill(chunk.entities, 0, chunk.count, null);
+            for (Component[] column : chunk.columns) {
+                Arrays.fill(column, 0, chunk.count, null);
+            }
+            chunk.count = 0;
+        }
+        size = 0;
+        notifyQueries();
+    }
+
+    /**
+     * 通知匹配本原型的查询成员已变化
+     */
+    private void notifyQueries() {
+        for (int i = 0; i < queries.size(); i++) {
+            queries.get(i).markDirty();
+        }
+    }
+
+    Archetype getAddEdge(int typeId) {
+        return addEdges[typeId];
+    }
+
+    void setAddEdge(int typeId, Archetype target) {
+        addEdges[typeId] = target;
+    }
+
+    Archetype getRemoveEdge(int typeId) {
+        return removeEdges[typeId];
+    }
+
+    void setRemoveEdge(int typeId, Archetype target) {
+        removeEdges[typeId] = target;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.towerdefense.ecs;
+
+/**
+ * 原型数据块 - 原型表中固定容量的一段连续存储
+ *
+ * 每个数据块保存最多 CAPACITY 个实体：
+ * - entities: 实体引用，按行排列
+ * - columns:  每种组件类型一列，columns[列][行] 为该行实体的组件
+ *
+ * 同一原型的实体组件集合完全相同，因此每一列都是紧密填充的
+ * 遍历"所有Transform+Enemy"时只需顺序扫描匹配原型的数据块
+ */
+final class ArchetypeChunk {
+    /**
+     * 数据块容量的位移量 - 容量取2的幂，行号到块号/块内行号只需移位和掩码
+     */
+    static final int SHIFT = 7;
+
+    /**
+     * 数据块容量 - 每块最多容纳的实体数量
+     */
+    static final int CAPACITY = 1 << SHIFT;
+
+    /**
+     * 块内行号掩码
+     */
+    static final int MASK = CAPACITY - 1;
+
+    /**
+     * 实体引用数组 - 下标为块内行号
+     */
+    final Entity[] entities;
+
+    /**
+     * 组件列数组 - columns[列号][块内行号]
+     * 列号由所属原型的 columnOf 映射得到
+     */
+    final Component[][] columns;
+
+    /**
+     * 当前块中的有效行数
+     */
+    int count;
+
+    ArchetypeChunk(int columnCount) {
+        this.entities = new Entity[CAPACITY];
+        this.columns = new Component[columnCount][CAPACITY];
+        this.count = 0;
+    }
+}
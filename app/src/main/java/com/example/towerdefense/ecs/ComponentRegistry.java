@@ -0,0 +1,116 @@
+package com.example.towerdefense.ecs;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 组件类型注册表 - 为每个组件类分配一个紧凑的整数ID
+ *
+ * 在ECS架构中：
+ * - 组件类型ID: 从0开始连续分配，可直接作为数组下标使用
+ * - 组件掩码: 每个类型ID对应long中的一位，实体和系统都用掩码描述组件集合
+ *
+ * 系统匹配只需一次按位与运算：(entityMask & requiredMask) == requiredMask
+ * 组件访问只需一次数组索引：components[typeId]
+ *
+ * 限制：使用long作为掩码，最多支持64种组件类型
+ */
+public final class ComponentRegistry {
+    /**
+     * 支持的最大组件类型数量 - 受限于long掩码的位数
+     */
+    public static final int MAX_TYPES = 64;
+
+    /**
+     * 类型到ID的映射 - 写时复制，读取时无需加锁
+     * 使用IdentityHashMap，Class对象按引用比较，避免equals调用
+     */
+    private static volatile Map<Class<? extends Component>, Integer> ids = new IdentityHashMap<>();
+
+    /**
+     * ID到类型的反向映射 - 主要用于调试和统计输出
+     */
+    private static final List<Class<? extends Component>> types = new ArrayList<>();
+
+    private ComponentRegistry() {
+        // 工具类，不允许实例化
+    }
+
+    /**
+     * 获取组件类型ID，首次访问时自动注册
+     * @param componentClass 组件类型
+     * @return 组件类型的整数ID（0 ~ MAX_TYPES-1）
+     */
+    public static int getId(Class<? extends Component> componentClass) {
+        Integer id = ids.get(componentClass);
+        if (id != null) {
+            return id;
+        }
+        return register(componentClass);
+    }
+
+    /**
+     * 注册组件类型 - 组件类可以在静态字段中调用此方法缓存自己的类型ID
+     * 例如：public static final int TYPE_ID = ComponentRegistry.register(Transform.class);
+     * @param componentClass 组件类型
+     * @return 组件类型的整数ID
+     */
+    public static synchronized int register(Class<? extends Component> componentClass) {
+        Integer existing = ids.get(componentClass);
+        if (existing != null) {
+            return existing;
+        }
+        if (types.size() >= MAX_TYPES) {
+            throw new IllegalStateException("ComponentRegistry: 组件类型数量超过上限 " + MAX_TYPES);
+        }
+
+        int id = types.size();
+        types.add(componentClass);
+
+        Map<Class<? extends Component>, Integer> copy = new IdentityHashMap<>(ids);
+        copy.put(componentClass, id);
+        ids = copy;
+        return id;
+    }
+
+    /**
+     * 获取组件类型对应的掩码位
+     * @param componentClass 组件类型
+     * @return 只包含该类型一位的掩码
+     */
+    public static long getBit(Class<? extends Component> componentClass) {
+        return 1L << getId(componentClass);
+    }
+
+    /**
+     * 计算一组组件类型的组合掩码
+     * @param componentClasses 组件类型列表
+     * @return 所有类型对应位的按位或
+     */
+    @SafeVarargs
+    public static long maskOf(Class<? extends Component>... componentClasses) {
+        long mask = 0L;
+        for (Class<? extends Component> componentClass : componentClasses) {
+            mask |= getBit(componentClass);
+        }
+        return mask;
+    }
+
+    /**
+     * 根据类型ID获取组件类型
+     * @param typeId 组件类型ID
+     * @return 组件类型，如果ID未注册则返回null
+     */
+    public static synchronized Class<? extends Component> getType(int typeId) {
+        return typeId >= 0 && typeId < types.size() ? types.get(typeId) : null;
+    }
+
+    /**
+     * 获取已注册的组件类型数量
+     */
+    public static synchronized int getTypeCount() {
+        return types.size();
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.towerdefense.ecs;
+
+import java.util.Arrays;
+
+/**
+ * 稀疏集组件存储 - 每种组件类型一个，与原型表并行维护
+ *
+ * 数据结构：
+ * - dense:  紧密排列的组件数组，下标0 ~ size-1 全部有效
+ * - owners: 与dense并行的实体数组，owners[i] 拥有 dense[i]
+ * - sparse: 以实体槽位索引为下标的稀疏数组，值为 dense下标+1（0表示没有该组件）
+ *           槽位会被回收，因此查找时还会比较拥有者的完整ID，过期句柄不会命中
+ *
+ * 添加、移除、成员检查都是O(1)且不需要哈希；
+ * 遍历某类组件（例如所有Health）只是对dense数组的一次顺序循环。
+ *
+ * 使用方式：系统可以逐个从 entity.getComponent 迁移到这里，两套接口始终保持一致
+ * @param <T> 组件类型
+ */
+public final class ComponentStorage<T extends Component> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * 组件类型ID
+     */
+    private final int typeId;
+
+    private Component[] dense;
+    private Entity[] owners;
+    private int[] sparse;
+    private int size;
+
+    ComponentStorage(int typeId) {
+        this.typeId = typeId;
+        this.dense = new Component[INITIAL_CAPACITY];
+        this.owners = new Entity[INITIAL_CAPACITY];
+        this.sparse = new int[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * 获取本存储对应的组件类型ID
+     */
+    public int getTypeId() {
+        return typeId;
+    }
+
+    /**
+     * 获取存储中的组件数量
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 检查实体是否拥有本类型组件
+     * @param entityId 实体ID（句柄），过期句柄返回false
+     */
+    public boolean has(int entityId) {
+        return slotOf(entityId) != 0;
+    }
+
+    /**
+     * 按实体ID获取组件
+     * @param entityId 实体ID
+     * @return 组件实例，不存在时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int entityId) {
+        int slot = slotOf(entityId);
+        return slot != 0 ? (T) dense[slot - 1] : null;
+    }
+
+    /**
+     * 按紧密下标获取组件 - 用于顺序遍历
+     * @param index 0 ~ size()-1
+     */
+    @SuppressWarnings("unchecked")
+    public T getAt(int index) {
+        return (T) dense[index];
+    }
+
+    /**
+     * 按紧密下标获取组件的拥有者实体
+     * @param index 0 ~ size()-1
+     */
+    public Entity getEntityAt(int index) {
+        return owners[index];
+    }
+
+    /**
+     * 添加或覆盖实体的组件 - 由World在实体添加组件时调用
+     */
+    void put(Entity entity, Component component) {
+        int entityIndex = entity.getIndex();
+        if (entityIndex >= sparse.length) {
+            sparse = Arrays.copyOf(sparse, Math.max(entityIndex + 1, sparse.length * 2));
+        }
+
+        int slot = sparse[entityIndex];
+        if (slot != 0) {
+            dense[slot - 1] = component;
+            owners[slot - 1] = entity;
+            return;
+        }
+
+        if (size == dense.length) {
+            dense = Arrays.copyOf(dense, size * 2);
+            owners = Arrays.copyOf(owners, size * 2);
+        }
+        dense[size] = component;
+        owners[size] = entity;
+        size++;
+        sparse[entityIndex] = size;
+    }
+
+    /**
+     * 移除实体的组件 - 用最后一个元素填补空位
+     */
+    void remove(int entityId) {
+        int slot = slotOf(entityId);
+        if (slot == 0) {
+            return;
+        }
+
+        int index = slot - 1;
+        int last = size - 1;
+        if (index != last) {
+            dense[index] = dense[last];
+            owners[index] = owners[last];
+            sparse[owners[index].getIndex()] = index + 1;
+        }
+        dense[last] = null;
+        owners[last] = null;
+        sparse[EntityHandle.index(entityId)] = 0;
+        size--;
+    }
+
+    /**
+     * 查找实体在dense中的位置
+     * @return dense下标+1；实体没有该组件或句柄已过期时返回0
+     */
+    private int slotOf(int entityId) {
+        if (entityId < 0) {
+            return 0;
+        }
+        int entityIndex = EntityHandle.index(entityId);
+        if (entityIndex >= sparse.length) {
+            return 0;
+        }
+        int slot = sparse[entityIndex];
+        return slot != 0 && owners[slot - 1].getId() == entityId ? slot : 0;
+    }
+
+    /**
+     * 清空存储
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            sparse[owners[i].getIndex()] = 0;
+            dense[i] = null;
+            owners[i] = null;
+        }
+        size = 0;
+    }
+}
@@ -8,14 +8,20 @@ import java.util.*;
 public abstract class ECSSystem {
     protected World world;
     protected Set<Class<? extends Component>> requiredComponents;
+    // 必需组件掩码，构造时计算一次，实体匹配只需一次按位与
+    protected final long requiredMask;
+    // 必需组件对应的持久查询，设置世界引用时获取，由世界增量维护
+    protected EntityQuery query;
 
     @SafeVarargs
     public ECSSystem(Class<? extends Component>... requiredComponents) {
         this.requiredComponents = new HashSet<>(Arrays.asList(requiredComponents));
+        this.requiredMask = ComponentRegistry.maskOf(requiredComponents);
     }
 
     public void setWorld(World world) {
         this.world = world;
+        this.query = world != null ? world.getQuery(requiredMask) : null;
         System.out.println("ECSSystem: " + this.getClass().getSimpleName() + " 的世界引用已设置");
     }
 
@@ -33,15 +39,19 @@ public abstract class ECSSystem {
         return requiredComponents;
     }
 
+    public long getRequiredMask() {
+        return requiredMask;
+    }
+
     public abstract void update(float deltaTime);
 
     protected List<Entity> getEntities() {
         if (world == null) {
             String systemName = this.getClass().getSimpleName();
             System.err.println("ECSSystem: 严重错误！" + systemName + " 的 world 为 null，无法获取实体");
-            return new ArrayList<>();
+            return Collections.emptyList();
         }
-        return world.getEntitiesForSystem(this);
+        return query.getEntities();
     }
     /**
      * 当实体从世界中移除时的回调
@@ -17,20 +17,40 @@ import java.util.*;
 public class Entity {
     /**
      * 实体唯一标识符 - 用于区分不同的实体
+     * 由World分配的句柄：低位为槽位索引，高位为代数（见EntityHandle）
+     * 槽位会被回收复用，但同一时刻存活的实体ID一定不同
      * 使用final确保ID在实体生命周期内不变
      * 基于ID的equals和hashCode实现提供高效的实体比较
      */
     private final int id;
 
     /**
-     * 组件映射 - 存储实体拥有的所有组件
-     * Key: 组件类类型 (Class<? extends Component>)
-     * Value: 组件实例 (Component)
+     * 组件数组 - 存储实体拥有的所有组件
+     * 下标: 组件类型ID（由ComponentRegistry分配）
+     * 元素: 组件实例，未拥有该类型时为null
      *
-     * 设计选择：使用HashMap提供O(1)的组件访问性能
+     * 设计选择：用类型ID直接索引数组，替代HashMap的哈希查找
      * 每个组件类型只能有一个实例（符合ECS常见规范）
      */
-    private final Map<Class<? extends Component>, Component> components;
+    private Component[] components;
+
+    /**
+     * 组件掩码 - 第N位为1表示实体拥有类型ID为N的组件
+     * 系统匹配时只需与系统的必需掩码做一次按位与
+     */
+    private long componentMask;
+
+    /**
+     * 所属世界 - 由World在创建实体时设置，实体被移除后置为null
+     * 组件集合变化时通过它通知世界迁移原型
+     */
+    World world;
+
+    /**
+     * 实体当前所在的原型表及行号 - 由World维护
+     */
+    Archetype archetype;
+    int archetypeRow;
 
     /**
      * 构造函数 - 创建具有指定ID的新实体
@@ -39,7 +59,8 @@ public class Entity {
      */
     public Entity(int id) {
         this.id = id;
-        this.components = new HashMap<>();
+        this.components = new Component[Math.max(8, ComponentRegistry.getTypeCount())];
+        this.componentMask = 0L;
     }
 
     /**
@@ -50,6 +71,22 @@ public class Entity {
         return id;
     }
 
+    /**
+     * 获取实体的槽位索引 - 可作为按实体索引的数组下标
+     * @return 槽位索引（0 ~ 2^20-1）
+     */
+    public int getIndex() {
+        return EntityHandle.index(id);
+    }
+
+    /**
+     * 检查实体是否仍存活于某个世界中
+     * @return false表示实体已被移除，不应再使用
+     */
+    public boolean isAlive() {
+        return world != null;
+    }
+
     /**
      * 添加组件到实体
      * @param component 要添加的组件实例
@@ -59,7 +96,18 @@ public class Entity {
      * 这允许在运行时动态修改实体的组件配置
      */
     public <T extends Component> void addComponent(T component) {
-        components.put(component.getClass(), component);
+        int typeId = ComponentRegistry.getId(component.getClass());
+        if (typeId >= components.length) {
+            components = Arrays.copyOf(components, Math.max(typeId + 1, components.length * 2));
+        }
+        Component previous = components[typeId];
+        components[typeId] = component;
+        componentMask |= 1L << typeId;
+
+        // 通知世界：新增类型时迁移原型，同类型覆盖时只更新原型中的组件列
+        if (world != null) {
+            world.onComponentAdded(this, typeId, component, previous);
+        }
     }
 
     /**
@@ -71,8 +119,22 @@ public class Entity {
      * 使用泛型确保类型安全，避免强制类型转换
      * 调用示例：Transform transform = entity.getComponent(Transform.class);
      */
+    @SuppressWarnings("unchecked")
     public <T extends Component> T getComponent(Class<T> componentClass) {
-        return componentClass.cast(components.get(componentClass));
+        return (T) getComponent(ComponentRegistry.getId(componentClass));
+    }
+
+    /**
+     * 按类型ID获取组件 - 热路径使用，只做一次数组索引
+     * @param typeId 组件类型ID，通常取自组件类的TYPE_ID常量
+     * @param <T> 组件类型，由调用处的赋值目标推断
+     * @return 组件实例，如果不存在则返回null
+     *
+     * 调用示例：Transform transform = entity.getComponent(Transform.TYPE_ID);
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Component> T getComponent(int typeId) {
+        return typeId < components.length ? (T) components[typeId] : null;
     }
 
     /**
@@ -84,7 +146,25 @@ public class Entity {
      * 系统使用此方法快速判断实体是否符合处理条件
      */
     public <T extends Component> boolean hasComponent(Class<T> componentClass) {
-        return components.containsKey(componentClass);
+        return hasComponent(ComponentRegistry.getId(componentClass));
+    }
+
+    /**
+     * 按类型ID检查实体是否拥有组件 - 只检查掩码中的一位
+     * @param typeId 组件类型ID
+     * @return true如果实体拥有该类型的组件
+     */
+    public boolean hasComponent(int typeId) {
+        return (componentMask & (1L << typeId)) != 0;
+    }
+
+    /**
+     * 检查实体是否拥有掩码中的全部组件
+     * @param mask 组件掩码（见ComponentRegistry.maskOf）
+     * @return true如果实体的组件集合包含掩码中的所有类型
+     */
+    public boolean hasAllComponents(long mask) {
+        return (componentMask & mask) == mask;
     }
 
     /**
@@ -96,18 +176,52 @@ public class Entity {
      * 相关系统将停止处理该实体的对应逻辑
      */
     public <T extends Component> void removeComponent(Class<T> componentClass) {
-        components.remove(componentClass);
+        int typeId = ComponentRegistry.getId(componentClass);
+        if (!hasComponent(typeId)) {
+            return;
+        }
+        Component removed = components[typeId];
+        components[typeId] = null;
+        componentMask &= ~(1L << typeId);
+
+        // 通知世界将实体迁移到不含该类型的原型
+        if (world != null) {
+            world.onComponentRemoved(this, typeId, removed);
+        }
+    }
+
+    /**
+     * 从已销毁的实体上摘除组件 - 由World在回收组件时调用，不通知世界
+     */
+    void releaseComponent(int typeId) {
+        components[typeId] = null;
+        componentMask &= ~(1L << typeId);
+    }
+
+    /**
+     * 获取实体的组件掩码
+     * @return 组件掩码，第N位表示是否拥有类型ID为N的组件
+     */
+    public long getComponentMask() {
+        return componentMask;
     }
 
     /**
      * 获取实体拥有的所有组件类型
      * @return 组件类型集合
      *
-     * 主要用于调试、序列化和系统匹配
-     * World类使用此信息来优化实体到系统的分配
+     * 主要用于调试和序列化，会分配新的集合
+     * 系统匹配请使用getComponentMask()
      */
     public Set<Class<? extends Component>> getComponentTypes() {
-        return components.keySet();
+        Set<Class<? extends Component>> result = new HashSet<>();
+        long mask = componentMask;
+        while (mask != 0) {
+            int typeId = Long.numberOfTrailingZeros(mask);
+            result.add(ComponentRegistry.getType(typeId));
+            mask &= mask - 1;
+        }
+        return result;
     }
 
     /**
@@ -133,6 +247,6 @@ public class Entity {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return Integer.hashCode(id);
     }
 }
\ No newline at end of file
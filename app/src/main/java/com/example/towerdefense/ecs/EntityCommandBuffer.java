@@ -0,0 +1,136 @@
+package com.example.towerdefense.ecs;
+
+import java.util.Arrays;
+
+/**
+ * 实体命令缓冲 - 记录系统更新期间的结构性变化，在同步点统一回放
+ *
+ * 设计理念：
+ * - 结构性变化（销毁实体、增删组件）会让实体在原型之间迁移，
+ *   如果在遍历查询结果时直接执行，正在遍历的数据块就会被改写
+ * - 系统只把变化记录到缓冲区，World在每个系统更新结束后的同步点按记录顺序回放
+ * - 命令按并行数组存放，缓冲区容量只增不减，稳定运行后记录命令不再分配内存
+ *
+ * 关于创建实体：
+ * createEntity 立即分配槽位和句柄（句柄可以马上被其他组件引用），
+ * 但实体在回放前不带任何组件，因此不会出现在任何系统的查询中
+ */
+public final class EntityCommandBuffer {
+    private static final int INITIAL_CAPACITY = 32;
+
+    private static final byte OP_DESTROY = 0;
+    private static final byte OP_ADD_COMPONENT = 1;
+    private static final byte OP_REMOVE_COMPONENT = 2;
+
+    private final World world;
+
+    // 命令队列 - 四个并行数组，下标为命令序号
+    private byte[] ops;
+    private Entity[] targets;
+    private Component[] components;
+    private int[] typeIds;
+    private int count;
+
+    EntityCommandBuffer(World world) {
+        this.world = world;
+        this.ops = new byte[INITIAL_CAPACITY];
+        this.targets = new Entity[INITIAL_CAPACITY];
+        this.components = new Component[INITIAL_CAPACITY];
+        this.typeIds = new int[INITIAL_CAPACITY];
+        this.count = 0;
+    }
+
+    /**
+     * 创建新实体 - 组件应通过 addComponent 记录，回放时一次性加入
+     * @return 新实体，句柄立即有效
+     */
+    public Entity createEntity() {
+        return world.createEntity();
+    }
+
+    /**
+     * 记录销毁实体 - 同一实体被重复记录时只有第一次生效
+     */
+    public void destroy(Entity entity) {
+        record(OP_DESTROY, entity, null, -1);
+    }
+
+    /**
+     * 记录为实体添加组件（同类型组件会被覆盖）
+     */
+    public void addComponent(Entity entity, Component component) {
+        record(OP_ADD_COMPONENT, entity, component, -1);
+    }
+
+    /**
+     * 记录移除实体的组件
+     */
+    public void removeComponent(Entity entity, Class<? extends Component> componentType) {
+        record(OP_REMOVE_COMPONENT, entity, null, ComponentRegistry.getId(componentType));
+    }
+
+    /**
+     * 检查缓冲区中是否有待回放的命令
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * 待回放的命令数量
+     */
+    public int size() {
+        return count;
+    }
+
+    private void record(byte op, Entity entity, Component component, int typeId) {
+        if (count == ops.length) {
+            int capacity = count * 2;
+            ops = Arrays.copyOf(ops, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            components = Arrays.copyOf(components, capacity);
+            typeIds = Arrays.copyOf(typeIds, capacity);
+        }
+        ops[count] = op;
+        targets[count] = entity;
+        components[count] = component;
+        typeIds[count] = typeId;
+        count++;
+    }
+
+    /**
+     * 按记录顺序回放所有命令并清空缓冲区 - 由World在同步点调用
+     *
+     * 针对已销毁实体的命令会被跳过；回放过程中新记录的命令（例如entityRemoved回调中记录的）
+     * 会在同一次回放中继续执行
+     */
+    void playback() {
+        for (int i = 0; i < count; i++) {
+            Entity entity = targets[i];
+            if (entity.world != world) {
+                continue;
+            }
+            switch (ops[i]) {
+                case OP_DESTROY:
+                    world.removeEntity(entity);
+                    break;
+                case OP_ADD_COMPONENT:
+                    entity.addComponent(components[i]);
+                    break;
+                case OP_REMOVE_COMPONENT:
+                    entity.removeComponent(ComponentRegistry.getType(typeIds[i]));
+                    break;
+            }
+        }
+        clear();
+    }
+
+    /**
+     * 丢弃所有未回放的命令
+     */
+    void clear() {
+        Arrays.fill(targets, 0, count, null);
+        Arrays.fill(components, 0, count, null);
+        count = 0;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.towerdefense.ecs;
+
+/**
+ * 实体句柄工具类 - 把槽位索引和代数打包进一个int
+ *
+ * 句柄布局（始终为非负数）：
+ * - 低20位: 槽位索引，实体被销毁后索引会被回收给新实体
+ * - 高11位: 代数，槽位每回收一次加1
+ *
+ * 同一槽位的新旧实体代数不同，因此持有旧句柄的一方（例如飞行中弹道记录的目标）
+ * 只需比较一次代数就能在O(1)时间内发现目标已经失效
+ */
+public final class EntityHandle {
+    /**
+     * 空句柄 - 表示"没有实体"，任何世界中都不会存活
+     */
+    public static final int NULL = -1;
+
+    /**
+     * 槽位索引占用的位数，最多同时存在 2^20 个实体
+     */
+    public static final int INDEX_BITS = 20;
+
+    /**
+     * 槽位索引掩码
+     */
+    public static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+
+    /**
+     * 代数掩码（11位），溢出后回绕
+     */
+    public static final int GENERATION_MASK = (1 << (31 - INDEX_BITS)) - 1;
+
+    private EntityHandle() {
+        // 工具类，不允许实例化
+    }
+
+    /**
+     * 打包句柄
+     * @param index 槽位索引
+     * @param generation 槽位当前代数
+     */
+    public static int pack(int index, int generation) {
+        return ((generation & GENERATION_MASK) << INDEX_BITS) | (index & INDEX_MASK);
+    }
+
+    /**
+     * 从句柄中取出槽位索引
+     */
+    public static int index(int handle) {
+        return handle & INDEX_MASK;
+    }
+
+    /**
+     * 从句柄中取出代数
+     */
+    public static int generation(int handle) {
+        return (handle >>> INDEX_BITS) & GENERATION_MASK;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.towerdefense.ecs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 实体查询 - 持久化的组件组合查询，由World创建并增量维护
+ *
+ * 设计理念：
+ * - 查询 = 必需组件掩码 + 匹配的原型表列表
+ * - 新原型创建时由World判断是否匹配并登记，查询本身从不扫描全部原型
+ * - 匹配原型中有实体加入或离开（创建、销毁、增删组件）时，查询被标记为脏
+ * - 成员列表只在脏状态下按需重建，重建成本只与匹配实体数量成正比，且复用同一个列表
+ *
+ * 同一组件掩码的查询在World中只有一个实例，多个系统可以共享
+ */
+public class EntityQuery {
+    /**
+     * 必需组件掩码
+     */
+    private final long mask;
+
+    /**
+     * 匹配的原型表 - 只增不减（原型一旦创建便一直存在）
+     */
+    final List<Archetype> archetypes;
+
+    /**
+     * 成员实体列表 - 复用的缓冲区，避免每帧分配新列表
+     */
+    private final ArrayList<Entity> members;
+
+    /**
+     * 成员列表的只读视图 - 创建一次，返回给调用方
+     */
+    private final List<Entity> membersView;
+
+    /**
+     * 成员列表是否需要重建
+     */
+    private boolean dirty;
+
+    /**
+     * 结构版本号 - 成员每变化一次加1，调用方可据此判断是否需要重新同步
+     */
+    private int version;
+
+    EntityQuery(long mask) {
+        this.mask = mask;
+        this.archetypes = new ArrayList<>();
+        this.members = new ArrayList<>();
+        this.membersView = Collections.unmodifiableList(members);
+        this.dirty = true;
+    }
+
+    /**
+     * 获取查询的必需组件掩码
+     */
+    public long getMask() {
+        return mask;
+    }
+
+    /**
+     * 获取结构版本号 - 与上次记录的值不同说明有实体加入或离开了查询
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * 获取所有匹配的实体
+     * @return 只读的成员列表；该列表由查询复用，下一次结构变化后再次调用时内容会被刷新
+     *
+     * 注意：遍历期间移除实体不会修改正在遍历的列表，被移除的实体仍会留在本次遍历中
+     */
+    public List<Entity> getEntities() {
+        if (dirty) {
+            rebuild();
+        }
+        return membersView;
+    }
+
+    /**
+     * 获取匹配的实体数量 - 直接累加匹配原型的大小，不需要重建成员列表
+     */
+    public int size() {
+        int count = 0;
+        for (int i = 0; i < archetypes.size(); i++) {
+            count += archetypes.get(i).size;
+        }
+        return count;
+    }
+
+    /**
+     * 检查是否没有任何匹配的实体
+     */
+    public boolean isEmpty() {
+        for (int i = 0; i < archetypes.size(); i++) {
+            if (archetypes.get(i).size > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 登记一个新创建的匹配原型 - 由World调用
+     */
+    void addArchetype(Archetype archetype) {
+        archetypes.add(archetype);
+        archetype.queries.add(this);
+        dirty = true;
+        version++;
+    }
+
+    /**
+     * 标记成员列表需要重建 - 匹配原型的成员发生变化时由原型调用
+     */
+    void markDirty() {
+        dirty = true;
+        version++;
+    }
+
+    /**
+     * 按匹配原型的数据块顺序重建成员列表
+     */
+    private void rebuild() {
+        members.clear();
+        for (int a = 0; a < archetypes.size(); a++) {
+            Archetype archetype = archetypes.get(a);
+            for (int c = 0; c < archetype.chunks.size(); c++) {
+                ArchetypeChunk chunk = archetype.chunks.get(c);
+                for (int i = 0; i < chunk.count; i++) {
+                    members.add(chunk.entities[i]);
+                }
+            }
+        }
+        dirty = false;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.towerdefense.ecs;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * 对象池 - 复用频繁创建和销毁的对象，减少垃圾回收造成的卡顿
+ *
+ * 使用方式：
+ * - obtain() 取出一个对象，池为空时通过工厂新建
+ * - free(obj) 重置对象并放回池中，池满时直接丢弃交给GC
+ *
+ * 组件池由World统一管理（见World.getComponentPool），
+ * 实体销毁时其拥有的可回收组件会自动放回对应的池
+ *
+ * 注意：非线程安全，只应在游戏循环所在线程使用
+ * @param <T> 池中对象的类型
+ */
+public final class ObjectPool<T extends Poolable> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Supplier<T> factory;
+    private final int maxSize;
+    private Object[] free;
+    private int freeCount;
+
+    /**
+     * 构造函数
+     * @param factory 池为空时创建新对象的工厂
+     * @param maxSize 池中最多保留的空闲对象数量
+     */
+    public ObjectPool(Supplier<T> factory, int maxSize) {
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.free = new Object[Math.min(INITIAL_CAPACITY, maxSize)];
+        this.freeCount = 0;
+    }
+
+    /**
+     * 取出一个对象 - 优先复用空闲对象
+     * @return 处于初始状态的对象，调用方负责设置其字段
+     */
+    @SuppressWarnings("unchecked")
+    public T obtain() {
+        if (freeCount > 0) {
+            T object = (T) free[--freeCount];
+            free[freeCount] = null;
+            return object;
+        }
+        return factory.get();
+    }
+
+    /**
+     * 回收一个对象 - 重置后放回池中
+     * @param object 不再使用的对象，回收后调用方不应再持有它
+     */
+    public void free(T object) {
+        object.reset();
+        if (freeCount == maxSize) {
+            return;
+        }
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, Math.min(freeCount * 2, maxSize));
+        }
+        free[freeCount++] = object;
+    }
+
+    /**
+     * 获取当前空闲对象数量
+     */
+    public int getFreeCount() {
+        return freeCount;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.towerdefense.ecs;
+
+/**
+ * 可回收接口 - 可以放回对象池重复使用的对象
+ *
+ * 对象池在回收时调用reset，实现类应把所有字段恢复为无参构造后的状态，
+ * 并释放对其他对象（实体、组件等）的引用，避免复用后读到上一次的数据
+ */
+public interface Poolable {
+    /**
+     * 重置为初始状态 - 由ObjectPool在回收时调用
+     */
+    void reset();
+}
@@ -0,0 +1,61 @@
+package com.example.towerdefense.ecs;
+
+import java.util.Arrays;
+
+/**
+ * 位置列存储 - 以结构数组（SoA）形式保存世界中所有实体的二维坐标
+ *
+ * 数据结构：
+ * - x[i], y[i]: 槽位索引为 i 的实体的坐标（槽位索引见EntityHandle / Entity.getIndex()）
+ * - 槽位会被回收，世界中的槽位数量不超过历史最大同时存活实体数，两个数组保持紧密
+ *
+ * 位置组件（Transform）加入世界中的实体后，坐标数据就搬到这两列中，组件对象只作为访问器；
+ * 离开世界时数据再拷回组件自身。距离计算等循环可以直接读取 x/y 数组，
+ * 不需要逐个解引用分散在堆上的组件对象。
+ *
+ * 注意：数组扩容时会被替换，循环中应先把 x/y 读到局部变量，但不要跨帧保存
+ */
+public final class PositionStore {
+    /**
+     * 可绑定到位置列的组件 - 由World在组件加入/离开实体时调用
+     */
+    public interface Binding extends Component {
+        /**
+         * 把组件自身的坐标写入位置列，之后读写都通过位置列进行
+         * @param store 世界的位置列存储
+         * @param index 所属实体的槽位索引
+         */
+        void bind(PositionStore store, int index);
+
+        /**
+         * 把坐标从位置列拷回组件自身，解除绑定
+         */
+        void unbind();
+    }
+
+    /**
+     * X坐标列 - 下标为实体槽位索引
+     */
+    public float[] x;
+
+    /**
+     * Y坐标列 - 下标为实体槽位索引
+     */
+    public float[] y;
+
+    PositionStore(int capacity) {
+        this.x = new float[capacity];
+        this.y = new float[capacity];
+    }
+
+    /**
+     * 确保可以容纳指定数量的槽位 - 由World在分配新槽位时调用
+     */
+    void ensureCapacity(int slots) {
+        if (slots > x.length) {
+            int capacity = Math.max(slots, x.length * 2);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.towerdefense.ecs;
+
+import java.util.List;
+
+/**
+ * 3组件类型化查询 - 遍历时直接把组件按类型交给回调，不经过实体列表和getComponent
+ *
+ * 用法：world.query(Transform.class, Enemy.class, Health.class).forEach((entity, transform, enemy, health) -> ...);
+ *
+ * 性能说明：
+ * - 直接顺序扫描匹配原型的数据块和组件列，不创建中间列表
+ * - 查询对象应在setWorld中创建一次并保存在字段中；
+ *   回调最好也保存在字段中（例如 this::process），避免每帧创建捕获变量的lambda
+ * - 这样稳定运行的一帧在ECS层不分配任何内存
+ *
+ * 注意：遍历期间的结构性变化（销毁实体、增删组件）必须通过EntityCommandBuffer记录，
+ * 直接修改世界会移动正在遍历的数据块中的行
+ */
+public final class Query3<A extends Component, B extends Component, C extends Component> {
+    /**
+     * 遍历回调 - 参数为实体及其3个组件
+     */
+    @FunctionalInterface
+    public interface Each<A, B, C> {
+        void accept(Entity entity, A a, B b, C c);
+    }
+
+    private final EntityQuery query;
+    private final int typeIdA;
+    private final int typeIdB;
+    private final int typeIdC;
+
+    Query3(EntityQuery query, int typeIdA, int typeIdB, int typeIdC) {
+        this.query = query;
+        this.typeIdA = typeIdA;
+        this.typeIdB = typeIdB;
+        this.typeIdC = typeIdC;
+    }
+
+    /**
+     * 对每个匹配的实体执行回调
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Each<A, B, C> action) {
+        List<Archetype> archetypes = query.archetypes;
+        for (int a = 0; a < archetypes.size(); a++) {
+            Archetype archetype = archetypes.get(a);
+            if (archetype.size == 0) continue;
+            int columnA = archetype.columnOf[typeIdA];
+            int columnB = archetype.columnOf[typeIdB];
+            int columnC = archetype.columnOf[typeIdC];
+            List<ArchetypeChunk> chunks = archetype.chunks;
+            for (int c = 0; c < chunks.size(); c++) {
+                ArchetypeChunk chunk = chunks.get(c);
+                Entity[] entities = chunk.entities;
+                Component[] componentsA = chunk.columns[columnA];
+                Component[] componentsB = chunk.columns[columnB];
+                Component[] componentsC = chunk.columns[columnC];
+                for (int i = 0; i < chunk.count; i++) {
+                    action.accept(entities[i], (A) componentsA[i], (B) componentsB[i], (C) componentsC[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取匹配的实体数量
+     */
+    public int size() {
+        return query.size();
+    }
+
+    /**
+     * 获取底层的实体查询 - 需要按下标访问实体列表时使用
+     */
+    public EntityQuery getQuery() {
+        return query;
+    }
+}
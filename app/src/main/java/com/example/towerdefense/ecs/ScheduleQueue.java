@@ -0,0 +1,116 @@
+package com.example.towerdefense.ecs;
+
+import java.util.Arrays;
+
+/**
+ * 调度队列 - 以模拟时间为键的实体句柄最小堆
+ *
+ * 数据结构：
+ * - handles[i] / times[i]: 堆中第 i 个条目的实体句柄和到期时间（见World.getTime）
+ * - 两个数组保持同一个堆顺序，堆顶是最早到期的条目
+ *
+ * 系统只需弹出已经到期的条目，不必每帧轮询所有实体。
+ * 队列不跟踪实体的销毁：弹出的句柄应通过world.getEntity解析，返回null时直接丢弃（惰性删除）
+ */
+public final class ScheduleQueue {
+    private int[] handles;
+    private double[] times;
+    private int size;
+
+    public ScheduleQueue() {
+        this(16);
+    }
+
+    public ScheduleQueue(int capacity) {
+        capacity = Math.max(1, capacity);
+        this.handles = new int[capacity];
+        this.times = new double[capacity];
+    }
+
+    /**
+     * 加入一个条目
+     * @param handle 实体句柄
+     * @param time 到期的模拟时间（秒）
+     */
+    public void push(int handle, double time) {
+        if (size == handles.length) {
+            handles = Arrays.copyOf(handles, size * 2);
+            times = Arrays.copyOf(times, size * 2);
+        }
+        int i = size++;
+        // 上浮
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (times[parent] <= time) {
+                break;
+            }
+            handles[i] = handles[parent];
+            times[i] = times[parent];
+            i = parent;
+        }
+        handles[i] = handle;
+        times[i] = time;
+    }
+
+    /**
+     * 检查堆顶条目是否已经到期
+     * @param now 当前模拟时间
+     */
+    public boolean hasDue(double now) {
+        return size > 0 && times[0] <= now;
+    }
+
+    /**
+     * 最早到期的时间，队列为空时返回正无穷
+     */
+    public double peekTime() {
+        return size > 0 ? times[0] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * 弹出最早到期的条目
+     * @return 条目的实体句柄，队列为空时返回EntityHandle.NULL
+     */
+    public int pop() {
+        if (size == 0) {
+            return EntityHandle.NULL;
+        }
+        int top = handles[0];
+        size--;
+        if (size > 0) {
+            int handle = handles[size];
+            double time = times[size];
+            // 下沉
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                int right = child + 1;
+                if (right < size && times[right] < times[child]) {
+                    child = right;
+                }
+                if (time <= times[child]) {
+                    break;
+                }
+                handles[i] = handles[child];
+                times[i] = times[child];
+                i = child;
+            }
+            handles[i] = handle;
+            times[i] = time;
+        }
+        return top;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.towerdefense.ecs;
 
 import java.util.*;
+import java.util.function.Supplier;
 
 /**
  * 世界类 - ECS (Entity-Component-System) 架构的核心容器和管理器
@@ -11,16 +12,86 @@ import java.util.*;
  * - 协调系统更新循环
  * - 提供实体查询和筛选功能
  *
+ * 存储模型：原型表 (Archetype)
+ * - 组件集合相同的实体存放在同一原型表中，按固定容量的数据块连续排列
+ * - 实体增删组件时在原型之间迁移（例如敌人实体添加Health组件）
+ * - 查询只访问掩码匹配的原型，实体再多也不会扫描无关实体
+ *
  * 设计模式：管理器模式 (Manager Pattern)
  * 目的：集中管理游戏中的所有实体和系统，提供统一的访问接口
  */
 public class World {
     /**
-     * 实体列表 - 存储世界中所有的活动实体
-     * 使用ArrayList提供快速的顺序访问和随机访问
-     * 实体在创建时添加，在销毁时移除
+     * 原型表列表 - 组件集合相同的实体存放在同一个原型表中
+     * 查询时只需遍历掩码匹配的原型，不再逐个检查世界中的每个实体
+     */
+    private final List<Archetype> archetypes;
+
+    /**
+     * 原型索引 - 组件掩码到原型表的映射，只在首次出现新的组件组合时查询
+     * 之后的迁移通过原型自身的迁移缓存完成
      */
-    private List<Entity> entities;
+    private final Map<Long, Archetype> archetypeIndex;
+
+    /**
+     * 持久查询 - 组件掩码到查询的映射，同一掩码的查询只创建一次
+     */
+    private final Map<Long, EntityQuery> queries;
+
+    /**
+     * 稀疏集组件存储 - 下标为组件类型ID，与原型表并行维护
+     * 适合按单一组件类型做紧密遍历，例如遍历所有Health组件
+     */
+    private ComponentStorage<?>[] storages;
+
+    /**
+     * 组件对象池 - 下标为组件类型ID，没有注册池的类型为null
+     * 实体销毁时，拥有池的组件会被重置并放回池中复用
+     */
+    private final ObjectPool<?>[] componentPools;
+
+    /**
+     * 世界资源 - 以类型为键的单例数据（路径注册表、关卡配置、屏幕尺寸等）
+     * 不属于任何实体，系统按类型以常数时间读取
+     */
+    private final Map<Class<?>, Object> resources;
+
+    /**
+     * 每个组件对象池最多保留的空闲组件数量
+     */
+    private static final int COMPONENT_POOL_SIZE = 256;
+
+    /**
+     * 空原型 - 刚创建、尚未添加任何组件的实体所在的原型
+     */
+    private final Archetype emptyArchetype;
+
+    /**
+     * 活动实体紧密数组 - 下标0 ~ entityCount-1 全部有效
+     * 删除时用最后一个实体填补空位（swap-remove），保持紧密排列
+     */
+    private Entity[] liveEntities;
+
+    /**
+     * 世界中活动实体的总数
+     */
+    private int entityCount;
+
+    /**
+     * 需要接收实体移除回调的系统 - 只包含重写了entityRemoved的系统
+     * 移除实体时不再逐个通知所有系统
+     */
+    private final List<ECSSystem> removalListeners;
+
+    /**
+     * 实体命令缓冲 - 系统更新期间记录的结构性变化，在每个系统更新结束后回放
+     */
+    private final EntityCommandBuffer commandBuffer;
+
+    /**
+     * 位置列存储 - 实体坐标的SoA存储，下标为实体槽位索引
+     */
+    private final PositionStore positions;
 
     /**
      * 系统列表 - 存储世界中所有注册的游戏系统
@@ -30,21 +101,56 @@ public class World {
     private List<ECSSystem> systems;
 
     /**
-     * 下一个实体ID - 用于生成实体的唯一标识符
-     * 采用自增策略，确保每个实体都有唯一的ID
-     * 从0开始，每次创建新实体时递增
+     * 模拟时间（秒）- 每次update累加deltaTime，游戏暂停时不前进
+     * 冷却、定时等逻辑应以它为准，而不是系统时钟
+     */
+    private double time;
+
+    /**
+     * 实体槽位表 - 下标为槽位索引（见EntityHandle）
+     * denseIndexOf: 槽位上存活实体在liveEntities中的下标，空闲槽位为-1
+     * generations:  槽位的当前代数，实体销毁时加1，使旧句柄失效
+     *
+     * 句柄 → 槽位 → 紧密下标，查找和删除都是常数时间
+     */
+    private int[] denseIndexOf;
+    private int[] generations;
+
+    /**
+     * 已分配过的槽位数量 - 新槽位从这里开始分配
+     */
+    private int slotCount;
+
+    /**
+     * 空闲槽位栈 - 被销毁实体的槽位在这里等待回收，ID空间不会无限增长
      */
-    private int nextEntityId;
+    private int[] freeSlots;
+    private int freeCount;
 
     /**
      * 构造函数 - 初始化空的世界
-     * 创建空的实体列表和系统列表
+     * 创建空原型和空的系统列表
      * 重置实体ID计数器
      */
     public World() {
-        this.entities = new ArrayList<>();
+        this.archetypes = new ArrayList<>();
+        this.archetypeIndex = new HashMap<>();
+        this.queries = new HashMap<>();
+        this.storages = new ComponentStorage<?>[ComponentRegistry.MAX_TYPES];
+        this.componentPools = new ObjectPool<?>[ComponentRegistry.MAX_TYPES];
+        this.resources = new HashMap<>();
+        this.emptyArchetype = getOrCreateArchetype(0L);
         this.systems = new ArrayList<>();
-        this.nextEntityId = 0;
+        this.liveEntities = new Entity[64];
+        this.removalListeners = new ArrayList<>();
+        this.commandBuffer = new EntityCommandBuffer(this);
+        this.positions = new PositionStore(64);
+        this.denseIndexOf = new int[64];
+        this.generations = new int[64];
+        this.slotCount = 0;
+        this.freeSlots = new int[64];
+        this.freeCount = 0;
+        this.entityCount = 0;
     }
 
     /**
@@ -52,14 +158,38 @@ public class World {
      * @return 新创建的实体实例
      *
      * 流程：
-     * 1. 使用当前nextEntityId创建实体
-     * 2. 递增nextEntityId为下一个实体准备
-     * 3. 将实体添加到实体列表中
+     * 1. 优先从空闲槽位栈中回收槽位，没有空闲槽位时分配新槽位
+     * 2. 用槽位索引和槽位当前代数打包出实体ID（句柄）
+     * 3. 将实体放入空原型（之后每添加一个组件，实体就迁移到对应原型）
      * 4. 返回新创建的实体供外部配置组件
      */
     public Entity createEntity() {
-        Entity entity = new Entity(nextEntityId++);
-        entities.add(entity);
+        int index;
+        if (freeCount > 0) {
+            index = freeSlots[--freeCount];
+        } else {
+            index = slotCount++;
+            if (index > EntityHandle.INDEX_MASK) {
+                throw new IllegalStateException("World: 实体数量超过上限 " + (EntityHandle.INDEX_MASK + 1));
+            }
+            if (index == denseIndexOf.length) {
+                denseIndexOf = Arrays.copyOf(denseIndexOf, index * 2);
+                generations = Arrays.copyOf(generations, index * 2);
+                positions.ensureCapacity(index * 2);
+            }
+        }
+
+        Entity entity = new Entity(EntityHandle.pack(index, generations[index]));
+        if (entityCount == liveEntities.length) {
+            liveEntities = Arrays.copyOf(liveEntities, entityCount * 2);
+        }
+        liveEntities[entityCount] = entity;
+        denseIndexOf[index] = entityCount;
+        entityCount++;
+
+        entity.world = this;
+        entity.archetype = emptyArchetype;
+        entity.archetypeRow = emptyArchetype.add(entity);
         return entity;
     }
 
@@ -67,17 +197,43 @@ public class World {
      * 移除实体 - 从世界中删除指定实体
      * @param entity 要移除的实体
      *
-     * 注意：这会从实体列表中移除实体引用
-     * 但没有显式清理组件的资源，依赖GC自动回收
-     * 实体被移除后，所有系统将不再处理该实体
+     * 注意：移除按以下顺序进行
+     * 1. 解除绑定：从组件存储、所在原型表和紧密实体数组中移除实体引用（均用最后一个元素填补空位），
+     *    位置组件的坐标拷回组件自身，实体槽位释放
+     * 2. 通知监听移除的系统（entityRemoved）
+     * 3. 回收组件：有对象池的组件（例如Transform、Enemy、Health）被重置后放回各自的ObjectPool
+     * 监听者只能在回调期间读取被移除实体的组件；回调结束后仍持有的组件引用可能已被重置并分配给新实体
+     * 实体被移除后，所有系统将不再处理该实体；重复移除同一实体不会产生任何效果
+     *
+     * 性能：与世界中的实体总数无关，只与实体拥有的组件数和监听移除的系统数有关
      */
     public void removeEntity(Entity entity) {
-        entities.remove(entity);
-        // 通知所有系统实体已被移除
-        for (ECSSystem system : systems) {
-            system.entityRemoved(entity);
+        if (entity.world != this) {
+            return;
+        }
+        releaseComponents(entity);
+        detachFromArchetype(entity);
+
+        // 从紧密数组中swap-remove，并修正被移动实体的下标
+        int index = entity.getIndex();
+        int dense = denseIndexOf[index];
+        int last = --entityCount;
+        if (dense != last) {
+            Entity moved = liveEntities[last];
+            liveEntities[dense] = moved;
+            denseIndexOf[moved.getIndex()] = dense;
         }
-        System.out.println("World: 实体 " + entity.getId() + " 已移除");
+        liveEntities[last] = null;
+        releaseSlot(index);
+        entity.world = null;
+
+        // 只通知关心实体移除的系统
+        for (int i = 0; i < removalListeners.size(); i++) {
+            removalListeners.get(i).entityRemoved(entity);
+        }
+
+        // 回调结束后再回收组件，监听者仍能读取被移除实体的组件
+        recycleComponents(entity);
     }
 
     /**
@@ -86,12 +242,372 @@ public class World {
      * @return 找到的实体，如果不存在则返回null
      */
     public Entity getEntityById(int entityId) {
-        for (Entity entity : entities) {
-            if (entity.getId() == entityId) {
-                return entity;
+        return getEntity(entityId);
+    }
+
+    // =====================================================================
+    // 实体句柄
+    // =====================================================================
+
+    /**
+     * 检查句柄对应的实体是否仍然存活 - O(1)，只比较一次槽位代数
+     * @param handle 实体句柄（即Entity.getId()）
+     * @return false表示实体已被销毁，或槽位已被新实体复用
+     */
+    public boolean isAlive(int handle) {
+        if (handle < 0) {
+            return false;
+        }
+        int index = EntityHandle.index(handle);
+        return index < slotCount
+                && denseIndexOf[index] >= 0
+                && generations[index] == EntityHandle.generation(handle);
+    }
+
+    /**
+     * 解析实体句柄
+     * @param handle 实体句柄
+     * @return 存活的实体；句柄已过期或为EntityHandle.NULL时返回null
+     */
+    public Entity getEntity(int handle) {
+        return isAlive(handle) ? liveEntities[denseIndexOf[EntityHandle.index(handle)]] : null;
+    }
+
+    /**
+     * 获取实体命令缓冲
+     *
+     * 系统在遍历查询结果时应通过命令缓冲销毁实体或增删组件，而不是直接修改世界；
+     * 记录的命令在该系统的update结束后统一回放
+     */
+    public EntityCommandBuffer getCommandBuffer() {
+        return commandBuffer;
+    }
+
+    /**
+     * 获取位置列存储 - 需要批量读取实体坐标的循环直接使用其 x/y 数组
+     */
+    public PositionStore getPositions() {
+        return positions;
+    }
+
+    /**
+     * 获取世界中活动实体的数量 - O(1)，不复制实体列表
+     */
+    public int getEntityCount() {
+        return entityCount;
+    }
+
+    /**
+     * 回收槽位 - 代数加1使所有旧句柄失效，然后放入空闲栈
+     */
+    private void releaseSlot(int index) {
+        denseIndexOf[index] = -1;
+        generations[index] = (generations[index] + 1) & EntityHandle.GENERATION_MASK;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = index;
+    }
+
+    // =====================================================================
+    // 原型管理
+    // =====================================================================
+
+    /**
+     * 组件添加回调 - 由Entity.addComponent调用
+     * @param entity 组件发生变化的实体（其组件数组和掩码已更新）
+     * @param typeId 新增组件的类型ID
+     * @param component 新增的组件实例
+     * @param previous 被覆盖的同类型组件；新增类型时为null
+     */
+    void onComponentAdded(Entity entity, int typeId, Component component, Component previous) {
+        getStorage(typeId).put(entity, component);
+        unbindPosition(previous);
+        bindPosition(entity, component);
+
+        if (previous != null) {
+            // 组件集合没有变化，只需更新原型表中的组件列
+            entity.archetype.set(entity.archetypeRow, typeId, component);
+            return;
+        }
+
+        Archetype source = entity.archetype;
+        Archetype target = source.getAddEdge(typeId);
+        if (target == null) {
+            target = getOrCreateArchetype(source.mask | (1L << typeId));
+            source.setAddEdge(typeId, target);
+        }
+        moveEntity(entity, target);
+    }
+
+    /**
+     * 组件移除回调 - 由Entity.removeComponent调用
+     * @param entity 组件发生变化的实体（其组件数组和掩码已更新）
+     * @param typeId 被移除组件的类型ID
+     * @param removed 被移除的组件实例
+     */
+    void onComponentRemoved(Entity entity, int typeId, Component removed) {
+        getStorage(typeId).remove(entity.getId());
+        unbindPosition(removed);
+
+        Archetype source = entity.archetype;
+        Archetype target = source.getRemoveEdge(typeId);
+        if (target == null) {
+            target = getOrCreateArchetype(source.mask & ~(1L << typeId));
+            source.setRemoveEdge(typeId, target);
+        }
+        moveEntity(entity, target);
+    }
+
+    /**
+     * 将实体从当前原型迁移到目标原型
+     */
+    private void moveEntity(Entity entity, Archetype target) {
+        detachFromArchetype(entity);
+        entity.archetype = target;
+        entity.archetypeRow = target.add(entity);
+    }
+
+    /**
+     * 从实体当前所在的原型中移除该实体，并修正被移动填补空位的实体行号
+     */
+    private void detachFromArchetype(Entity entity) {
+        Archetype archetype = entity.archetype;
+        Entity moved = archetype.remove(entity.archetypeRow);
+        if (moved != null) {
+            moved.archetypeRow = entity.archetypeRow;
+        }
+        entity.archetype = null;
+        entity.archetypeRow = -1;
+    }
+
+    /**
+     * 获取或创建指定组件掩码的原型表
+     */
+    private Archetype getOrCreateArchetype(long mask) {
+        Archetype archetype = archetypeIndex.get(mask);
+        if (archetype == null) {
+            archetype = new Archetype(mask);
+            archetypeIndex.put(mask, archetype);
+            archetypes.add(archetype);
+
+            // 新原型只在这里登记到匹配的查询中，之后查询无需再扫描原型列表
+            for (EntityQuery query : queries.values()) {
+                if (archetype.matches(query.getMask())) {
+                    query.addArchetype(archetype);
+                }
+            }
+        }
+        return archetype;
+    }
+
+    // =====================================================================
+    // 世界资源
+    // =====================================================================
+
+    /**
+     * 设置世界资源 - 同一类型只保存一个实例，重复设置会替换旧实例
+     * @param type 资源类型，作为查找的键
+     * @param resource 资源实例
+     */
+    public <T> void setResource(Class<T> type, T resource) {
+        resources.put(type, resource);
+    }
+
+    /**
+     * 获取世界资源 - O(1)
+     * @param type 资源类型
+     * @return 资源实例，未设置时返回null
+     */
+    public <T> T getResource(Class<T> type) {
+        return type.cast(resources.get(type));
+    }
+
+    /**
+     * 移除世界资源
+     * @return 被移除的资源实例，未设置时返回null
+     */
+    public <T> T removeResource(Class<T> type) {
+        return type.cast(resources.remove(type));
+    }
+
+    // =====================================================================
+    // 组件对象池
+    // =====================================================================
+
+    /**
+     * 获取指定组件类型的对象池，不存在时创建
+     * @param componentClass 可回收的组件类型
+     * @param factory 池为空时创建新组件的工厂（通常为无参构造函数引用）
+     * @return 世界共享的组件池，系统应在setWorld时获取一次并缓存
+     *
+     * 注册池之后，该类型的组件在实体销毁时会自动重置并放回池中，
+     * 持有已销毁实体组件引用的代码不能再读取它们
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Component & Poolable> ObjectPool<T> getComponentPool(Class<T> componentClass, Supplier<T> factory) {
+        int typeId = ComponentRegistry.getId(componentClass);
+        ObjectPool<T> pool = (ObjectPool<T>) componentPools[typeId];
+        if (pool == null) {
+            pool = new ObjectPool<>(factory, COMPONENT_POOL_SIZE);
+            componentPools[typeId] = pool;
+        }
+        return pool;
+    }
+
+    /**
+     * 把已销毁实体中拥有对象池的组件放回池中，并从实体上摘除
+     */
+    @SuppressWarnings("unchecked")
+    private void recycleComponents(Entity entity) {
+        long mask = entity.getComponentMask();
+        while (mask != 0) {
+            int typeId = Long.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            ObjectPool<Poolable> pool = (ObjectPool<Poolable>) componentPools[typeId];
+            if (pool != null) {
+                Poolable component = (Poolable) entity.getComponent(typeId);
+                entity.releaseComponent(typeId);
+                pool.free(component);
+            }
+        }
+    }
+
+    // =====================================================================
+    // 持久查询
+    // =====================================================================
+
+    /**
+     * 获取指定组件掩码的持久查询，不存在时创建
+     * @param mask 必需组件掩码（见ComponentRegistry.maskOf）
+     * @return 由世界增量维护的查询，系统应在setWorld时获取一次并缓存
+     */
+    public EntityQuery getQuery(long mask) {
+        EntityQuery query = queries.get(mask);
+        if (query == null) {
+            query = new EntityQuery(mask);
+            for (Archetype archetype : archetypes) {
+                if (archetype.matches(mask)) {
+                    query.addArchetype(archetype);
+                }
+            }
+            queries.put(mask, query);
+        }
+        return query;
+    }
+
+    /**
+     * 获取包含指定组件组合的持久查询
+     * @param componentClasses 必需的组件类型
+     * @return 由世界增量维护的查询
+     */
+    @SafeVarargs
+    public final EntityQuery getQuery(Class<? extends Component>... componentClasses) {
+        return getQuery(ComponentRegistry.maskOf(componentClasses));
+    }
+
+    /**
+     * 创建类型化查询 - 遍历时直接得到组件，见Query1
+     * 返回的对象应保存复用，底层持久查询由世界共享
+     */
+    public <A extends Component> Query1<A> query(Class<A> typeA) {
+        int idA = ComponentRegistry.getId(typeA);
+        return new Query1<>(getQuery(1L << idA), idA);
+    }
+
+    /**
+     * 创建类型化查询 - 遍历时直接得到组件，见Query2
+     * 返回的对象应保存复用，底层持久查询由世界共享
+     */
+    public <A extends Component, B extends Component> Query2<A, B> query(Class<A> typeA, Class<B> typeB) {
+        int idA = ComponentRegistry.getId(typeA);
+        int idB = ComponentRegistry.getId(typeB);
+        return new Query2<>(getQuery((1L << idA) | (1L << idB)), idA, idB);
+    }
+
+    /**
+     * 创建类型化查询 - 遍历时直接得到组件，见Query3
+     * 返回的对象应保存复用，底层持久查询由世界共享
+     */
+    public <A extends Component, B extends Component, C extends Component> Query3<A, B, C> query(
+            Class<A> typeA, Class<B> typeB, Class<C> typeC) {
+        int idA = ComponentRegistry.getId(typeA);
+        int idB = ComponentRegistry.getId(typeB);
+        int idC = ComponentRegistry.getId(typeC);
+        return new Query3<>(getQuery((1L << idA) | (1L << idB) | (1L << idC)), idA, idB, idC);
+    }
+
+    // =====================================================================
+    // 稀疏集组件存储
+    // =====================================================================
+
+    /**
+     * 获取指定组件类型的稀疏集存储
+     * @param componentClass 组件类型
+     * @return 该类型的存储，包含世界中所有该类型的组件
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Component> ComponentStorage<T> getStorage(Class<T> componentClass) {
+        return (ComponentStorage<T>) getStorage(ComponentRegistry.getId(componentClass));
+    }
+
+    /**
+     * 按类型ID获取稀疏集存储，不存在时创建
+     */
+    private ComponentStorage<?> getStorage(int typeId) {
+        ComponentStorage<?> storage = storages[typeId];
+        if (storage == null) {
+            storage = new ComponentStorage<>(typeId);
+            storages[typeId] = storage;
+        }
+        return storage;
+    }
+
+    /**
+     * 从实体拥有的每种组件的存储中移除该实体，并解除位置组件的绑定
+     */
+    private void releaseComponents(Entity entity) {
+        long mask = entity.getComponentMask();
+        while (mask != 0) {
+            int typeId = Long.numberOfTrailingZeros(mask);
+            storages[typeId].remove(entity.getId());
+            unbindPosition(entity.getComponent(typeId));
+            mask &= mask - 1;
+        }
+    }
+
+    /**
+     * 组件加入世界中的实体时，把位置组件绑定到位置列
+     */
+    private void bindPosition(Entity entity, Component component) {
+        if (component instanceof PositionStore.Binding) {
+            ((PositionStore.Binding) component).bind(positions, entity.getIndex());
+        }
+    }
+
+    /**
+     * 组件离开世界时，把位置组件的坐标拷回组件自身
+     */
+    private void unbindPosition(Component component) {
+        if (component instanceof PositionStore.Binding) {
+            ((PositionStore.Binding) component).unbind();
+        }
+    }
+
+    /**
+     * 将匹配掩码的所有原型中的实体追加到结果列表
+     */
+    private void collectEntities(long required, List<Entity> result) {
+        for (Archetype archetype : archetypes) {
+            if (!archetype.matches(required)) {
+                continue;
+            }
+            for (ArchetypeChunk chunk : archetype.chunks) {
+                for (int i = 0; i < chunk.count; i++) {
+                    result.add(chunk.entities[i]);
+                }
             }
         }
-        return null;
     }
 
     /**
@@ -107,6 +623,9 @@ public class World {
         // 设置系统的世界引用
         system.setWorld(this);
         systems.add(system);
+        if (overridesEntityRemoved(system)) {
+            removalListeners.add(system);
+        }
         System.out.println("World: 添加系统 " + system.getClass().getSimpleName() +
                 " (world=" + (system.world != null) + ")");
     }
@@ -120,9 +639,21 @@ public class World {
             system.setWorld(null);
         }
         systems.clear();
+        removalListeners.clear();
         System.out.println("World: 所有系统已清除");
     }
 
+    /**
+     * 检查系统是否重写了entityRemoved回调，只在添加系统时调用一次
+     */
+    private static boolean overridesEntityRemoved(ECSSystem system) {
+        try {
+            return system.getClass().getMethod("entityRemoved", Entity.class).getDeclaringClass() != ECSSystem.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
     /**
      * 更新世界 - 执行一帧的游戏逻辑
      * @param deltaTime 距离上一帧的时间间隔（秒）
@@ -130,22 +661,30 @@ public class World {
      * 这是游戏循环的核心方法，每帧调用一次
      * 按照系统注册顺序依次更新所有系统
      * 系统更新顺序可能影响游戏逻辑，需要谨慎设计
+     * 每个系统更新结束后是一个同步点，回放该系统通过命令缓冲记录的结构性变化
      */
     public void update(float deltaTime) {
-        System.out.println("World: 更新开始，系统数量=" + systems.size() + ", 实体数量=" + entities.size());
-
-        for (ECSSystem system : systems) {
+        time += deltaTime;
+        for (int i = 0; i < systems.size(); i++) {
+            ECSSystem system = systems.get(i);
             // 使用公共方法检查
             if (!system.isWorldSet()) {
                 System.err.println("World: 严重错误！系统 " + system.getClass().getSimpleName() + " 的 world 为 null");
                 system.setWorld(this); // 立即修复
             }
 
-            System.out.println("World: 更新系统 " + system.getClass().getSimpleName() + " (world=" + system.isWorldSet() + ")");
             system.update(deltaTime);
+
+            // 同步点：回放本系统记录的结构性变化，下一个系统看到的是一致的世界
+            commandBuffer.playback();
         }
+    }
 
-        System.out.println("World: 更新结束");
+    /**
+     * 获取当前模拟时间（秒）- 世界创建以来所有update的deltaTime之和
+     */
+    public double getTime() {
+        return time;
     }
 
     /**
@@ -154,27 +693,12 @@ public class World {
      * @return 符合系统组件要求的实体列表
      *
      * 这是ECS架构的关键方法，实现实体到系统的自动分配
-     * 性能考虑：每次调用都会实时筛选，适合实体数量不多的场景
-     * 对于大型游戏，可以考虑使用缓存优化
+     * 性能考虑：每个原型只做一次掩码按位与，不匹配的原型中的实体完全不会被访问
+     * 每帧调用的系统应使用ECSSystem.getEntities()，它返回缓存的持久查询结果而不分配新列表
      */
     public List<Entity> getEntitiesForSystem(ECSSystem system) {
         List<Entity> result = new ArrayList<>();
-        Set<Class<? extends Component>> required = system.getRequiredComponents();
-
-        // 遍历所有实体，检查是否符合系统的组件要求
-        for (Entity entity : entities) {
-            boolean hasAllComponents = true;
-            for (Class<? extends Component> componentClass : required) {
-                if (!entity.hasComponent(componentClass)) {
-                    hasAllComponents = false;
-                    break;
-                }
-            }
-            if (hasAllComponents) {
-                result.add(entity);
-            }
-        }
-
+        collectEntities(system.getRequiredMask(), result);
         return result;
     }
 
@@ -187,7 +711,7 @@ public class World {
      * 注意：返回的是实体引用的副本，实体本身是原始引用
      */
     public List<Entity> getAllEntities() {
-        return new ArrayList<>(entities);
+        return new ArrayList<>(Arrays.asList(liveEntities).subList(0, entityCount));
     }
 
     /**
@@ -197,11 +721,7 @@ public class World {
      */
     public List<Entity> getEntitiesWithComponent(Class<? extends Component> componentClass) {
         List<Entity> result = new ArrayList<>();
-        for (Entity entity : entities) {
-            if (entity.hasComponent(componentClass)) {
-                result.add(entity);
-            }
-        }
+        collectEntities(ComponentRegistry.getBit(componentClass), result);
         return result;
     }
 
@@ -209,7 +729,30 @@ public class World {
      * 清除所有实体
      */
     public void clearEntities() {
-        entities.clear();
+        commandBuffer.clear();
+        for (int i = 0; i < entityCount; i++) {
+            Entity entity = liveEntities[i];
+            liveEntities[i] = null;
+            long mask = entity.getComponentMask();
+            while (mask != 0) {
+                unbindPosition(entity.getComponent(Long.numberOfTrailingZeros(mask)));
+                mask &= mask - 1;
+            }
+            recycleComponents(entity);
+            releaseSlot(entity.getIndex());
+            entity.world = null;
+            entity.archetype = null;
+            entity.archetypeRow = -1;
+        }
+        for (Archetype archetype : archetypes) {
+            archetype.clear();
+        }
+        for (ComponentStorage<?> storage : storages) {
+            if (storage != null) {
+                storage.clear();
+            }
+        }
+        entityCount = 0;
         System.out.println("World: 所有实体已清除");
     }
 
@@ -218,18 +761,21 @@ public class World {
      */
     public void printEntityStats() {
         System.out.println("=== 实体统计 ===");
-        System.out.println("总实体数: " + entities.size());
+        System.out.println("总实体数: " + entityCount);
+        System.out.println("原型数: " + archetypes.size());
 
-        // 按组件类型统计
-        Map<Class<? extends Component>, Integer> componentCounts = new HashMap<>();
-        for (Entity entity : entities) {
-            for (Class<? extends Component> componentType : entity.getComponentTypes()) {
-                componentCounts.put(componentType, componentCounts.getOrDefault(componentType, 0) + 1);
+        // 按组件类型统计（下标为组件类型ID），每个原型的实体数累加到它包含的每种类型上
+        int[] componentCounts = new int[ComponentRegistry.MAX_TYPES];
+        for (Archetype archetype : archetypes) {
+            for (int typeId : archetype.typeIds) {
+                componentCounts[typeId] += archetype.size;
             }
         }
 
-        for (Map.Entry<Class<? extends Component>, Integer> entry : componentCounts.entrySet()) {
-            System.out.println("  " + entry.getKey().getSimpleName() + ": " + entry.getValue());
+        for (int typeId = 0; typeId < ComponentRegistry.getTypeCount(); typeId++) {
+            if (componentCounts[typeId] > 0) {
+                System.out.println("  " + ComponentRegistry.getType(typeId).getSimpleName() + ": " + componentCounts[typeId]);
+            }
         }
         System.out.println("================");
     }
@@ -0,0 +1,222 @@
+package com.example.towerdefense.resources;
+
+import com.example.towerdefense.components.Enemy;
+import com.example.towerdefense.components.Tower;
+import com.example.towerdefense.ecs.World;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * 战斗数值表 - 世界资源，集中保存防御塔、敌人的数值和伤害修正矩阵
+ *
+ * 数据结构（扁平基本类型数组）：
+ * - tower*[t]: 下标为 Tower.Type.ordinal() 的防御塔数值，射程以网格数为单位
+ * - enemy*[e]: 下标为 Enemy.Type.ordinal() 的敌人数值
+ * - damageMultipliers[t * ENEMY_TYPE_COUNT + e]: 防御塔类型 t 对敌人类型 e 的伤害倍率
+ *
+ * 默认值与原先写死在代码中的数值一致；GameEngine启动时从平衡文件（res/raw/combat_stats.properties，
+ * 以及应用私有目录中的同名覆盖文件）读取并覆盖，调整数值不需要修改代码。
+ * 伤害计算只是一次数组查表和一次乘法，不再按类型分支。
+ *
+ * 平衡文件格式（键不存在时保留默认值）：
+ * - tower.<塔类型>.damage / range / innerRange / attackSpeed / manpowerCost / supplyCost / projectileSpeed / splashRadius
+ * - tower.<塔类型>.leadTarget（true/false）
+ * - enemy.<敌人类型>.health / speed / reward
+ * - multiplier.<塔类型>.<敌人类型>
+ */
+public final class CombatStats {
+    public static final int TOWER_TYPE_COUNT = Tower.Type.values().length;
+    public static final int ENEMY_TYPE_COUNT = Enemy.Type.values().length;
+
+    // 防御塔数值
+    public final int[] towerDamage = new int[TOWER_TYPE_COUNT];
+    public final float[] towerRange = new float[TOWER_TYPE_COUNT];        // 外圈射程（网格数）
+    public final float[] towerInnerRange = new float[TOWER_TYPE_COUNT];   // 内圈射程（网格数），只有法师塔大于0
+    public final float[] towerAttackSpeed = new float[TOWER_TYPE_COUNT];  // 每秒攻击次数
+    public final int[] towerManpowerCost = new int[TOWER_TYPE_COUNT];
+    public final int[] towerSupplyCost = new int[TOWER_TYPE_COUNT];
+    public final float[] towerProjectileSpeed = new float[TOWER_TYPE_COUNT]; // 弹道速度（像素/秒）
+    public final float[] towerSplashRadius = new float[TOWER_TYPE_COUNT];    // 范围伤害半径（像素），0表示追踪单体弹道
+    public final boolean[] towerLeadTarget = new boolean[TOWER_TYPE_COUNT];  // 是否瞄准预测拦截点（提前量），否则瞄准目标当前位置
+
+    // 敌人数值
+    public final int[] enemyHealth = new int[ENEMY_TYPE_COUNT];
+    public final float[] enemySpeed = new float[ENEMY_TYPE_COUNT];        // 移动速度（像素/秒）
+    public final int[] enemyReward = new int[ENEMY_TYPE_COUNT];
+
+    // 防御塔 × 敌人 伤害倍率矩阵
+    public final float[] damageMultipliers = new float[TOWER_TYPE_COUNT * ENEMY_TYPE_COUNT];
+
+    /**
+     * 创建使用默认数值的数值表
+     */
+    public CombatStats() {
+        setTower(Tower.Type.Infantry, 10, 4f, 0f, 1.0f, 10, 5, 250f, 0f);
+        setTower(Tower.Type.Anti_tank, 25, 2f, 0f, 0.5f, 20, 15, 100f, 60f);
+        setTower(Tower.Type.Artillery, 50, 6f, 3f, 0.1f, 15, 10, 220f, 120f);
+
+        // 范围伤害弹道不追踪目标，默认瞄准预测拦截点；追踪弹道每帧修正方向，不需要提前量
+        towerLeadTarget[Tower.Type.Anti_tank.ordinal()] = true;
+        towerLeadTarget[Tower.Type.Artillery.ordinal()] = true;
+
+        setEnemy(Enemy.Type.Vehicle, 30, 100f, 5);
+        setEnemy(Enemy.Type.Infantry, 60, 60f, 10);
+        setEnemy(Enemy.Type.Armour, 100, 40f, 20);
+
+        Arrays.fill(damageMultipliers, 1.0f);
+        for (Tower.Type tower : Tower.Type.values()) {
+            // 轻装机动步兵：受到所有伤害均为125%
+            setMultiplier(tower, Enemy.Type.Vehicle, 1.25f);
+        }
+        // 装甲：受到125%来自炮塔和法师塔的伤害，受到50%来自弓箭塔的伤害
+        setMultiplier(Tower.Type.Anti_tank, Enemy.Type.Armour, 1.25f);
+        setMultiplier(Tower.Type.Artillery, Enemy.Type.Armour, 1.25f);
+        setMultiplier(Tower.Type.Infantry, Enemy.Type.Armour, 0.5f);
+    }
+
+    /**
+     * 获取世界中的数值表，不存在时以默认数值创建并注册为世界资源
+     */
+    public static CombatStats of(World world) {
+        CombatStats stats = world.getResource(CombatStats.class);
+        if (stats == null) {
+            stats = new CombatStats();
+            world.setResource(CombatStats.class, stats);
+        }
+        return stats;
+    }
+
+    // ========== 伤害计算 ==========
+
+    /**
+     * 计算修正后的伤害 - 查伤害倍率矩阵
+     * @param towerType 伤害来源的防御塔类型
+     * @param enemyType 受到伤害的敌人类型
+     * @param baseDamage 基础伤害
+     */
+    public int adjustDamage(Tower.Type towerType, Enemy.Type enemyType, int baseDamage) {
+        return (int) (baseDamage * damageMultipliers[towerType.ordinal() * ENEMY_TYPE_COUNT + enemyType.ordinal()]);
+    }
+
+    public float getMultiplier(Tower.Type towerType, Enemy.Type enemyType) {
+        return damageMultipliers[towerType.ordinal() * ENEMY_TYPE_COUNT + enemyType.ordinal()];
+    }
+
+    // ========== 读取平衡文件 ==========
+
+    /**
+     * 从平衡文件读取数值，覆盖当前值；文件中没有的键保留原值
+     * @param in UTF-8编码的properties文件，读取后由调用方关闭
+     */
+    public void load(InputStream in) throws IOException {
+        Properties properties = new Properties();
+        Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+        properties.load(reader);
+        apply(properties);
+    }
+
+    /**
+     * 用键值表覆盖当前数值
+     */
+    public void apply(Properties properties) {
+        for (Tower.Type tower : Tower.Type.values()) {
+            int t = tower.ordinal();
+            String prefix = "tower." + tower.name() + ".";
+            towerDamage[t] = getInt(properties, prefix + "damage", towerDamage[t]);
+            towerRange[t] = getFloat(properties, prefix + "range", towerRange[t]);
+            towerInnerRange[t] = getFloat(properties, prefix + "innerRange", towerInnerRange[t]);
+            towerAttackSpeed[t] = getFloat(properties, prefix + "attackSpeed", towerAttackSpeed[t]);
+            towerManpowerCost[t] = getInt(properties, prefix + "manpowerCost", towerManpowerCost[t]);
+            towerSupplyCost[t] = getInt(properties, prefix + "supplyCost", towerSupplyCost[t]);
+            towerProjectileSpeed[t] = getFloat(properties, prefix + "projectileSpeed", towerProjectileSpeed[t]);
+            towerSplashRadius[t] = getFloat(properties, prefix + "splashRadius", towerSplashRadius[t]);
+            towerLeadTarget[t] = getBoolean(properties, prefix + "leadTarget", towerLeadTarget[t]);
+
+            for (Enemy.Type enemy : Enemy.Type.values()) {
+                int m = t * ENEMY_TYPE_COUNT + enemy.ordinal();
+                damageMultipliers[m] = getFloat(properties,
+                        "multiplier." + tower.name() + "." + enemy.name(), damageMultipliers[m]);
+            }
+        }
+        for (Enemy.Type enemy : Enemy.Type.values()) {
+            int e = enemy.ordinal();
+            String prefix = "enemy." + enemy.name() + ".";
+            enemyHealth[e] = getInt(properties, prefix + "health", enemyHealth[e]);
+            enemySpeed[e] = getFloat(properties, prefix + "speed", enemySpeed[e]);
+            enemyReward[e] = getInt(properties, prefix + "reward", enemyReward[e]);
+        }
+    }
+
+    // ========== 内部方法 ==========
+
+    private void setTower(Tower.Type type, int damage, float range, float innerRange, float attackSpeed,
+                          int manpowerCost, int supplyCost, float projectileSpeed, float splashRadius) {
+        int t = type.ordinal();
+        towerDamage[t] = damage;
+        towerRange[t] = range;
+        towerInnerRange[t] = innerRange;
+        towerAttackSpeed[t] = attackSpeed;
+        towerManpowerCost[t] = manpowerCost;
+        towerSupplyCost[t] = supplyCost;
+        towerProjectileSpeed[t] = projectileSpeed;
+        towerSplashRadius[t] = splashRadius;
+    }
+
+    private void setEnemy(Enemy.Type type, int health, float speed, int reward) {
+        int e = type.ordinal();
+        enemyHealth[e] = health;
+        enemySpeed[e] = speed;
+        enemyReward[e] = reward;
+    }
+
+    private void setMultiplier(Tower.Type towerType, Enemy.Type enemyType, float multiplier) {
+        damageMultipliers[towerType.ordinal() * ENEMY_TYPE_COUNT + enemyType.ordinal()] = multiplier;
+    }
+
+    private static int getInt(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("CombatStats: 数值格式错误 " + key + "=" + value + "，使用默认值 " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private static boolean getBoolean(Properties properties, String key, boolean defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        value = value.trim();
+        if (value.equalsIgnoreCase("true")) {
+            return true;
+        }
+        if (value.equalsIgnoreCase("false")) {
+            return false;
+        }
+        System.err.println("CombatStats: 数值格式错误 " + key + "=" + value + "，使用默认值 " + defaultValue);
+        return defaultValue;
+    }
+
+    private static float getFloat(Properties properties, String key, float defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Float.parseFloat(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("CombatStats: 数值格式错误 " + key + "=" + value + "，使用默认值 " + defaultValue);
+            return defaultValue;
+        }
+    }
+}
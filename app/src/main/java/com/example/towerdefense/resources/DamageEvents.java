@@ -0,0 +1,116 @@
+package com.example.towerdefense.resources;
+
+import com.example.towerdefense.components.Tower;
+import com.example.towerdefense.ecs.World;
+import java.util.Arrays;
+
+/**
+ * 伤害事件缓冲 - 世界资源，收集本帧所有待结算的伤害，由DamageSystem统一结算后清空
+ *
+ * 数据结构（结构数组，每个事件一行）：
+ * - targets[i]: 目标敌人的实体句柄（见EntityHandle），结算时目标可能已失效
+ * - amounts[i]: 基础伤害值，结算时再按敌人类型和防御塔类型修正
+ * - towerTypes[i]: 伤害来源的防御塔类型序号，NO_TOWER 表示不做类型修正的伤害（例如空袭）
+ * - flags[i]: 附加标记，见 FLAG_ 常量
+ *
+ * 产生伤害的一方只追加事件，不直接修改生命值、不发放奖励、不移除实体
+ */
+public final class DamageEvents {
+    /**
+     * 标记：伤害来自空军轰炸，被它击杀的敌人不计入空军支援计数
+     */
+    public static final int FLAG_AIR_STRIKE = 1;
+
+    /**
+     * 不做防御塔类型修正的伤害来源
+     */
+    public static final byte NO_TOWER = -1;
+
+    private static final Tower.Type[] TOWER_TYPES = Tower.Type.values();
+
+    private int[] targets = new int[64];
+    private int[] amounts = new int[64];
+    private byte[] towerTypes = new byte[64];
+    private byte[] flags = new byte[64];
+    private int size;
+
+    /**
+     * 获取世界中的伤害事件缓冲，不存在时创建并注册为世界资源
+     */
+    public static DamageEvents of(World world) {
+        DamageEvents events = world.getResource(DamageEvents.class);
+        if (events == null) {
+            events = new DamageEvents();
+            world.setResource(DamageEvents.class, events);
+        }
+        return events;
+    }
+
+    /**
+     * 追加一次防御塔造成的伤害
+     * @param target 目标敌人的实体句柄
+     * @param amount 基础伤害
+     * @param towerType 伤害来源的防御塔类型，为null时不做类型修正
+     */
+    public void add(int target, int amount, Tower.Type towerType) {
+        add(target, amount, towerType, 0);
+    }
+
+    /**
+     * 追加一次伤害
+     * @param target 目标敌人的实体句柄
+     * @param amount 基础伤害
+     * @param towerType 伤害来源的防御塔类型，为null时不做类型修正
+     * @param eventFlags 附加标记，见 FLAG_ 常量
+     */
+    public void add(int target, int amount, Tower.Type towerType, int eventFlags) {
+        if (size == targets.length) {
+            int capacity = size * 2;
+            targets = Arrays.copyOf(targets, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            towerTypes = Arrays.copyOf(towerTypes, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+        }
+        targets[size] = target;
+        amounts[size] = amount;
+        towerTypes[size] = towerType != null ? (byte) towerType.ordinal() : NO_TOWER;
+        flags[size] = (byte) eventFlags;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getTarget(int i) {
+        return targets[i];
+    }
+
+    public int getAmount(int i) {
+        return amounts[i];
+    }
+
+    /**
+     * 获取伤害来源的防御塔类型
+     * @return 防御塔类型，不做类型修正的伤害返回null
+     */
+    public Tower.Type getTowerType(int i) {
+        byte type = towerTypes[i];
+        return type != NO_TOWER ? TOWER_TYPES[type] : null;
+    }
+
+    public boolean hasFlag(int i, int flag) {
+        return (flags[i] & flag) != 0;
+    }
+
+    /**
+     * 清空缓冲 - 结算完成后由DamageSystem调用
+     */
+    public void clear() {
+        size = 0;
+    }
+}
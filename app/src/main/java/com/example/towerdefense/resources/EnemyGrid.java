@@ -0,0 +1,468 @@
+package com.example.towerdefense.resources;
+
+import com.example.towerdefense.components.Enemy;
+import com.example.towerdefense.components.Health;
+import com.example.towerdefense.components.Tower;
+import com.example.towerdefense.ecs.Entity;
+import com.example.towerdefense.ecs.PositionStore;
+import com.example.towerdefense.ecs.World;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 敌人空间网格 - 世界资源，按均匀网格划分屏幕，回答"某点半径r内有哪些敌人"
+ *
+ * 数据结构（计数排序构建，每帧重建一次，稳定后不再分配内存）：
+ * - cellStart[c] ~ cellStart[c + 1]: 第 c 个单元格内的敌人在下面三个数组中的区间
+ * - entities / xs / ys: 按单元格排好序的敌人及其坐标，查询时连续读取
+ * - progress / health: 同一顺序下敌人的路径进度（Enemy.distanceAlongPath）和当前生命值
+ * - 每个单元格内部按路径进度从大到小排列（敌人每帧只前进一小段，插入排序接近线性）
+ *
+ * 单元格边长与建造网格相同（ScreenMetrics.gridSize），半径r的查询只访问与圆重叠的单元格，
+ * 圆环查询还会跳过完全落在内圈里的单元格。
+ * 按目标优先级选敌时（findTarget），"最前/最后"模式利用单元格内的进度顺序：
+ * 单元格的进度上界不优于当前最佳时整格跳过，否则第一个落在范围内的敌人就是该格的最佳目标。
+ * 屏幕外的坐标被归入边缘单元格，查询范围做同样的截断，结果依然精确。
+ *
+ * 本帧被击杀的敌人由DamageSystem调用remove从网格中剔除，之后的查询不会再返回它们；
+ * 受伤但存活的敌人由DamageSystem调用updateHealth同步生命值，"最强/最弱"模式按扣血后的生命值选敌。
+ *
+ * 注意：网格内容只在重建后的同一帧内有效，不要跨帧保存查询得到的实体
+ */
+public final class EnemyGrid {
+    /**
+     * 查询回调 - 对每个落在查询范围内的敌人调用一次
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        /**
+         * @param enemy 敌人实体
+         * @param distanceSq 敌人到查询中心的距离平方（矩形查询时为0）
+         * @return 返回false时立即结束本次查询
+         */
+        boolean visit(Entity enemy, float distanceSq);
+    }
+
+    private int cellSize = ScreenMetrics.DEFAULT_GRID_SIZE;
+    private float inverseCellSize = 1f / ScreenMetrics.DEFAULT_GRID_SIZE;
+    private int columns = 1;
+    private int rows = 1;
+
+    // 单元格区间表，长度至少为单元格数+1；cursor为构建时的写入位置
+    private int[] cellStart = new int[2];
+    private int[] cursor = new int[1];
+
+    // 按单元格排序后的敌人及坐标
+    private Entity[] entities = new Entity[64];
+    private float[] xs = new float[64];
+    private float[] ys = new float[64];
+    private float[] progress = new float[64];
+    private int[] health = new int[64];
+    private int[] cellOfItem = new int[64];
+    private int size;
+
+    // 实体槽位索引 → 条目下标，用于O(1)剔除被击杀的敌人（被剔除的条目entities为null）
+    private int[] itemOfSlot = new int[64];
+
+    /**
+     * 获取世界中的敌人网格，不存在时创建并注册为世界资源
+     */
+    public static EnemyGrid of(World world) {
+        EnemyGrid grid = world.getResource(EnemyGrid.class);
+        if (grid == null) {
+            grid = new EnemyGrid();
+            world.setResource(EnemyGrid.class, grid);
+        }
+        return grid;
+    }
+
+    /**
+     * 用当前敌人位置重建网格
+     * @param enemies 敌人实体列表（Transform + Enemy查询的结果）
+     * @param positions 世界的位置列存储
+     * @param cellSize 单元格边长（像素）
+     * @param width 屏幕宽度，未知时传0
+     * @param height 屏幕高度，未知时传0
+     */
+    public void rebuild(List<Entity> enemies, PositionStore positions, int cellSize, int width, int height) {
+        this.cellSize = Math.max(1, cellSize);
+        this.inverseCellSize = 1f / this.cellSize;
+        this.columns = Math.max(1, width / this.cellSize + 1);
+        this.rows = Math.max(1, height / this.cellSize + 1);
+
+        int cellCount = columns * rows;
+        if (cellStart.length < cellCount + 1) {
+            cellStart = new int[cellCount + 1];
+            cursor = new int[cellCount];
+        } else {
+            Arrays.fill(cellStart, 0, cellCount + 1, 0);
+        }
+
+        int count = enemies.size();
+        ensureCapacity(count);
+        float[] px = positions.x;
+        float[] py = positions.y;
+
+        // 第一遍：统计每个单元格的敌人数量
+        for (int i = 0; i < count; i++) {
+            int slot = enemies.get(i).getIndex();
+            int cell = cellOf(px[slot], py[slot]);
+            cellOfItem[i] = cell;
+            cellStart[cell + 1]++;
+        }
+
+        // 前缀和得到每个单元格的起始位置
+        for (int c = 0; c < cellCount; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        System.arraycopy(cellStart, 0, cursor, 0, cellCount);
+
+        // 第二遍：把敌人及坐标、进度、生命值写入各自单元格的区间
+        for (int i = 0; i < count; i++) {
+            Entity enemy = enemies.get(i);
+            int slot = enemy.getIndex();
+            int k = cursor[cellOfItem[i]]++;
+            Enemy enemyComp = enemy.getComponent(Enemy.TYPE_ID);
+            Health healthComp = enemy.getComponent(Health.TYPE_ID);
+            entities[k] = enemy;
+            if (slot >= itemOfSlot.length) {
+                itemOfSlot = Arrays.copyOf(itemOfSlot, Math.max(slot + 1, itemOfSlot.length * 2));
+            }
+            xs[k] = px[slot];
+            ys[k] = py[slot];
+            progress[k] = enemyComp != null ? enemyComp.distanceAlongPath : 0f;
+            health[k] = healthComp != null ? healthComp.current : 0;
+        }
+
+        // 每个单元格内部按路径进度从大到小排序
+        for (int c = 0; c < cellCount; c++) {
+            sortCellByProgress(cellStart[c], cellStart[c + 1]);
+        }
+
+        // 排序完成后再记录每个敌人的条目下标
+        for (int k = 0; k < count; k++) {
+            itemOfSlot[entities[k].getIndex()] = k;
+        }
+
+        // 清除上一帧多出来的引用，避免持有已销毁的实体
+        if (size > count) {
+            Arrays.fill(entities, count, size, null);
+        }
+        size = count;
+    }
+
+    /**
+     * 查询圆形范围内的敌人 - 只访问与圆重叠的单元格
+     * @param x 圆心X
+     * @param y 圆心Y
+     * @param radius 半径
+     * @param visitor 对每个距离不超过半径的敌人调用
+     */
+    public void queryRadius(float x, float y, float radius, Visitor visitor) {
+        if (radius < 0) {
+            return;
+        }
+        scan(x, y, -1f, radius * radius, radius, visitor);
+    }
+
+    /**
+     * 查询圆环范围内的敌人（innerRadius < 距离 <= outerRadius）
+     * 完全落在内圈里的单元格和完全落在外圈外的单元格整格跳过，全程比较距离平方
+     * @param x 圆心X
+     * @param y 圆心Y
+     * @param innerRadius 内圈半径，距离恰好等于内圈半径的敌人不在范围内
+     * @param outerRadius 外圈半径
+     * @param visitor 对每个落在圆环内的敌人调用
+     */
+    public void queryAnnulus(float x, float y, float innerRadius, float outerRadius, Visitor visitor) {
+        if (outerRadius < 0 || innerRadius >= outerRadius) {
+            return;
+        }
+        float innerSq = innerRadius > 0 ? innerRadius * innerRadius : -1f;
+        scan(x, y, innerSq, outerRadius * outerRadius, outerRadius, visitor);
+    }
+
+    /**
+     * 查询轴对齐矩形内的敌人（边界包含在内）- 只访问与矩形重叠的单元格
+     * 用于空军轰炸等矩形/条带范围的技能
+     * @param left 左边界
+     * @param top 上边界
+     * @param right 右边界
+     * @param bottom 下边界
+     * @param visitor 对每个落在矩形内的敌人调用，distanceSq参数为0
+     */
+    public void queryRect(float left, float top, float right, float bottom, Visitor visitor) {
+        if (size == 0 || left > right || top > bottom) {
+            return;
+        }
+        int minColumn = clampColumn((int) (left * inverseCellSize));
+        int maxColumn = clampColumn((int) (right * inverseCellSize));
+        int minRow = clampRow((int) (top * inverseCellSize));
+        int maxRow = clampRow((int) (bottom * inverseCellSize));
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                int cell = row * columns + column;
+                for (int k = cellStart[cell], end = cellStart[cell + 1]; k < end; k++) {
+                    float ex = xs[k];
+                    float ey = ys[k];
+                    if (ex >= left && ex <= right && ey >= top && ey <= bottom && entities[k] != null
+                            && !visitor.visit(entities[k], 0f)) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 按目标优先级在圆环范围内（innerRadius < 距离 <= outerRadius）选出一个敌人
+     * 圆形范围传 innerRadius = 0 即可
+     * @param mode 目标优先级，见Tower.TargetMode
+     * @return 最符合优先级的敌人，范围内没有敌人时返回null
+     */
+    public Entity findTarget(float x, float y, float innerRadius, float outerRadius, Tower.TargetMode mode) {
+        if (size == 0 || outerRadius < 0 || innerRadius >= outerRadius) {
+            return null;
+        }
+        float innerSq = innerRadius > 0 ? innerRadius * innerRadius : -1f;
+        float outerSq = outerRadius * outerRadius;
+        int minColumn = clampColumn((int) ((x - outerRadius) * inverseCellSize));
+        int maxColumn = clampColumn((int) ((x + outerRadius) * inverseCellSize));
+        int minRow = clampRow((int) ((y - outerRadius) * inverseCellSize));
+        int maxRow = clampRow((int) ((y + outerRadius) * inverseCellSize));
+
+        int best = -1;
+        float bestKey = 0f;
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                int cell = row * columns + column;
+                int start = cellStart[cell];
+                int end = cellStart[cell + 1];
+                if (start == end || !cellOverlaps(column, row, x, y, innerSq, outerSq)) {
+                    continue;
+                }
+
+                switch (mode) {
+                    case First:
+                        // 单元格内进度最大的敌人都不超过当前最佳，整格跳过
+                        if (best >= 0 && progress[start] <= bestKey) {
+                            break;
+                        }
+                        for (int k = start; k < end; k++) {
+                            if (entities[k] != null && inRange(k, x, y, innerSq, outerSq)) {
+                                if (best < 0 || progress[k] > bestKey) {
+                                    best = k;
+                                    bestKey = progress[k];
+                                }
+                                break;
+                            }
+                        }
+                        break;
+
+                    case Last:
+                        if (best >= 0 && progress[end - 1] >= bestKey) {
+                            break;
+                        }
+                        for (int k = end - 1; k >= start; k--) {
+                            if (entities[k] != null && inRange(k, x, y, innerSq, outerSq)) {
+                                if (best < 0 || progress[k] < bestKey) {
+                                    best = k;
+                                    bestKey = progress[k];
+                                }
+                                break;
+                            }
+                        }
+                        break;
+
+                    default:
+                        // 生命值/距离优先级：逐个比较范围内的敌人，键值越大越优先
+                        for (int k = start; k < end; k++) {
+                            float dx = xs[k] - x;
+                            float dy = ys[k] - y;
+                            float distanceSq = dx * dx + dy * dy;
+                            if (distanceSq > outerSq || distanceSq <= innerSq || entities[k] == null) {
+                                continue;
+                            }
+                            float key = mode == Tower.TargetMode.Strongest ? health[k]
+                                    : (mode == Tower.TargetMode.Weakest ? -health[k] : -distanceSq);
+                            if (best < 0 || key > bestKey) {
+                                best = k;
+                                bestKey = key;
+                            }
+                        }
+                        break;
+                }
+            }
+        }
+        return best >= 0 ? entities[best] : null;
+    }
+
+    /**
+     * 从网格中剔除一个敌人（例如本帧已被击杀），之后的查询不再返回它
+     */
+    public void remove(Entity enemy) {
+        int slot = enemy.getIndex();
+        if (slot < itemOfSlot.length) {
+            int k = itemOfSlot[slot];
+            if (k < size && entities[k] == enemy) {
+                entities[k] = null;
+            }
+        }
+    }
+
+    /**
+     * 更新网格中一个敌人的生命值（例如本帧受到伤害后），之后按生命值选敌时使用新值
+     */
+    public void updateHealth(Entity enemy, int current) {
+        int slot = enemy.getIndex();
+        if (slot < itemOfSlot.length) {
+            int k = itemOfSlot[slot];
+            if (k < size && entities[k] == enemy) {
+                health[k] = current;
+            }
+        }
+    }
+
+    /**
+     * 网格中的敌人数量（含已剔除的条目）
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    // ========== 内部方法 ==========
+
+    /**
+     * 遍历外圈外接正方形覆盖的单元格，接受 innerSq < 距离平方 <= outerSq 的敌人
+     */
+    private void scan(float x, float y, float innerSq, float outerSq, float outerRadius, Visitor visitor) {
+        if (size == 0) {
+            return;
+        }
+        int minColumn = clampColumn((int) ((x - outerRadius) * inverseCellSize));
+        int maxColumn = clampColumn((int) ((x + outerRadius) * inverseCellSize));
+        int minRow = clampRow((int) ((y - outerRadius) * inverseCellSize));
+        int maxRow = clampRow((int) ((y + outerRadius) * inverseCellSize));
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                if (!cellOverlaps(column, row, x, y, innerSq, outerSq)) {
+                    continue;
+                }
+                int cell = row * columns + column;
+                for (int k = cellStart[cell], end = cellStart[cell + 1]; k < end; k++) {
+                    float dx = xs[k] - x;
+                    float dy = ys[k] - y;
+                    float distanceSq = dx * dx + dy * dy;
+                    if (distanceSq <= outerSq && distanceSq > innerSq && entities[k] != null
+                            && !visitor.visit(entities[k], distanceSq)) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 单元格是否可能含有圆环内的敌人 - 离圆心最近的点在外圈外，或最远的点在内圈内时返回false
+     * 边缘单元格还收纳了屏幕外的坐标，它在屏幕外一侧的边界视为无限远
+     */
+    private boolean cellOverlaps(int column, int row, float x, float y, float innerSq, float outerSq) {
+        float left = column == 0 ? Float.NEGATIVE_INFINITY : column * cellSize;
+        float right = column == columns - 1 ? Float.POSITIVE_INFINITY : (column + 1) * cellSize;
+        float top = row == 0 ? Float.NEGATIVE_INFINITY : row * cellSize;
+        float bottom = row == rows - 1 ? Float.POSITIVE_INFINITY : (row + 1) * cellSize;
+
+        float nearX = axisNearest(x, left, right);
+        float nearY = axisNearest(y, top, bottom);
+        if (nearX * nearX + nearY * nearY > outerSq) {
+            return false;
+        }
+        float farX = axisFarthest(x, left, right);
+        float farY = axisFarthest(y, top, bottom);
+        return farX * farX + farY * farY > innerSq;
+    }
+
+    private boolean inRange(int k, float x, float y, float innerSq, float outerSq) {
+        float dx = xs[k] - x;
+        float dy = ys[k] - y;
+        float distanceSq = dx * dx + dy * dy;
+        return distanceSq <= outerSq && distanceSq > innerSq;
+    }
+
+    /**
+     * 把区间[start, end)内的条目按路径进度从大到小插入排序
+     */
+    private void sortCellByProgress(int start, int end) {
+        for (int i = start + 1; i < end; i++) {
+            float key = progress[i];
+            if (progress[i - 1] >= key) {
+                continue;
+            }
+            Entity entity = entities[i];
+            float x = xs[i];
+            float y = ys[i];
+            int hp = health[i];
+            int j = i - 1;
+            while (j >= start && progress[j] < key) {
+                entities[j + 1] = entities[j];
+                xs[j + 1] = xs[j];
+                ys[j + 1] = ys[j];
+                progress[j + 1] = progress[j];
+                health[j + 1] = health[j];
+                j--;
+            }
+            entities[j + 1] = entity;
+            xs[j + 1] = x;
+            ys[j + 1] = y;
+            progress[j + 1] = key;
+            health[j + 1] = hp;
+        }
+    }
+
+    /**
+     * 坐标v到区间[min, max]的最近距离（在区间内为0）
+     */
+    private static float axisNearest(float v, float min, float max) {
+        return v < min ? min - v : (v > max ? v - max : 0f);
+    }
+
+    /**
+     * 坐标v到区间[min, max]两端的最远距离
+     */
+    private static float axisFarthest(float v, float min, float max) {
+        return Math.max(v - min, max - v);
+    }
+
+    private int cellOf(float x, float y) {
+        int column = clampColumn((int) (x * inverseCellSize));
+        int row = clampRow((int) (y * inverseCellSize));
+        return row * columns + column;
+    }
+
+    private int clampColumn(int column) {
+        return column < 0 ? 0 : (column >= columns ? columns - 1 : column);
+    }
+
+    private int clampRow(int row) {
+        return row < 0 ? 0 : (row >= rows ? rows - 1 : row);
+    }
+
+    private void ensureCapacity(int count) {
+        if (count > entities.length) {
+            int capacity = Math.max(count, entities.length * 2);
+            entities = Arrays.copyOf(entities, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            progress = Arrays.copyOf(progress, capacity);
+            health = Arrays.copyOf(health, capacity);
+            cellOfItem = new int[capacity];
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.towerdefense.resources;
+
+import com.example.towerdefense.components.Tower;
+import com.example.towerdefense.ecs.EntityHandle;
+import com.example.towerdefense.ecs.ScheduleQueue;
+import com.example.towerdefense.ecs.World;
+import java.util.Arrays;
+
+/**
+ * 命中调度表 - 世界资源，保存不经过弹道模拟、按飞行时间解析结算的攻击
+ *
+ * 弹道数量超出预算或弹道不可见（例如没有屏幕的无界面运行）时，AttackSystem不发射模拟弹道，
+ * 而是用 距离 / 弹道速度 算出飞行时间，把命中登记在这里；到期时由ProjectileSystem
+ * 转为伤害事件或爆炸落点，与模拟弹道命中后的结算方式完全相同。
+ * 每次攻击只有一次堆插入和一次弹出，没有逐帧移动。
+ *
+ * 数据结构：
+ * - queue: 以命中的模拟时间为键的最小堆，条目是命中所在的行号（不是实体句柄）
+ * - targets / damages / towerTypes / x / y / radii: 每个命中一行（结构数组）
+ *   追踪命中记录目标句柄，范围命中记录落点和爆炸半径（radii > 0）
+ * - freeRows: 已结算的行，供之后的命中复用
+ */
+public final class HitScheduler {
+    private static final Tower.Type[] TOWER_TYPES = Tower.Type.values();
+
+    private final ScheduleQueue queue = new ScheduleQueue(64);
+
+    private int[] targets = new int[64];
+    private int[] damages = new int[64];
+    private byte[] towerTypes = new byte[64];
+    private float[] x = new float[64];
+    private float[] y = new float[64];
+    private float[] radii = new float[64];
+    private int rowCount;
+
+    private int[] freeRows = new int[64];
+    private int freeCount;
+
+    /**
+     * 获取世界中的命中调度表，不存在时创建并注册为世界资源
+     */
+    public static HitScheduler of(World world) {
+        HitScheduler scheduler = world.getResource(HitScheduler.class);
+        if (scheduler == null) {
+            scheduler = new HitScheduler();
+            world.setResource(HitScheduler.class, scheduler);
+        }
+        return scheduler;
+    }
+
+    /**
+     * 登记一次追踪单体命中
+     * @param time 命中的模拟时间（秒）
+     * @param target 目标敌人的实体句柄，到期时目标可能已失效，由DamageSystem跳过
+     * @param damage 基础伤害
+     * @param towerType 伤害来源的防御塔类型
+     */
+    public void scheduleHit(double time, int target, int damage, Tower.Type towerType) {
+        int row = obtainRow();
+        targets[row] = target;
+        damages[row] = damage;
+        towerTypes[row] = (byte) towerType.ordinal();
+        radii[row] = 0f;
+        queue.push(row, time);
+    }
+
+    /**
+     * 登记一次范围伤害落点
+     * @param time 落地的模拟时间（秒）
+     * @param impactX 落点X
+     * @param impactY 落点Y
+     * @param radius 爆炸半径
+     * @param damage 基础伤害
+     * @param towerType 伤害来源的防御塔类型
+     */
+    public void scheduleSplash(double time, float impactX, float impactY, float radius, int damage, Tower.Type towerType) {
+        int row = obtainRow();
+        targets[row] = EntityHandle.NULL;
+        damages[row] = damage;
+        towerTypes[row] = (byte) towerType.ordinal();
+        x[row] = impactX;
+        y[row] = impactY;
+        radii[row] = radius;
+        queue.push(row, time);
+    }
+
+    /**
+     * 结算所有已到期的命中 - 追踪命中写入伤害事件，范围命中写入爆炸落点
+     * @param now 当前模拟时间
+     * @return 本次结算的命中数量
+     */
+    public int resolveDue(double now, DamageEvents damageEvents, SplashImpacts splashImpacts) {
+        int resolved = 0;
+        while (queue.hasDue(now)) {
+            int row = queue.pop();
+            Tower.Type towerType = TOWER_TYPES[towerTypes[row]];
+            if (radii[row] > 0f) {
+                splashImpacts.add(x[row], y[row], radii[row], damages[row], towerType);
+            } else {
+                damageEvents.add(targets[row], damages[row], towerType);
+            }
+            releaseRow(row);
+            resolved++;
+        }
+        return resolved;
+    }
+
+    /**
+     * 尚未结算的命中数量
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    /**
+     * 清除所有待结算的命中 - 重新开始关卡时调用
+     */
+    public void clear() {
+        queue.clear();
+        rowCount = 0;
+        freeCount = 0;
+    }
+
+    // ========== 内部方法 ==========
+
+    private int obtainRow() {
+        if (freeCount > 0) {
+            return freeRows[--freeCount];
+        }
+        if (rowCount == targets.length) {
+            int capacity = rowCount * 2;
+            targets = Arrays.copyOf(targets, capacity);
+            damages = Arrays.copyOf(damages, capacity);
+            towerTypes = Arrays.copyOf(towerTypes, capacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            radii = Arrays.copyOf(radii, capacity);
+        }
+        return rowCount++;
+    }
+
+    private void releaseRow(int row) {
+        if (freeCount == freeRows.length) {
+            freeRows = Arrays.copyOf(freeRows, freeCount * 2);
+        }
+        freeRows[freeCount++] = row;
+    }
+}
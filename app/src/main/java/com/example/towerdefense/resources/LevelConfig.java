@@ -0,0 +1,19 @@
+package com.example.towerdefense.resources;
+
+import com.example.towerdefense.systems.LevelSystem;
+
+/**
+ * 关卡配置 - 世界资源，由LevelSystem在初始化关卡时发布
+ *
+ * 生成系统等只需要读取当前关卡数据的系统从这里获取，不再依赖LevelSystem实例
+ */
+public class LevelConfig {
+    // 公共字段
+    public final int levelId;
+    public final LevelSystem.LevelWaveConfig waves; // 当前关卡的波次配置，可能为null
+
+    public LevelConfig(int levelId, LevelSystem.LevelWaveConfig waves) {
+        this.levelId = levelId;
+        this.waves = waves;
+    }
+}
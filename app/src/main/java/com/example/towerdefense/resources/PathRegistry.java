@@ -0,0 +1,78 @@
+package com.example.towerdefense.resources;
+
+import com.example.towerdefense.components.Path;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 路径注册表 - 世界资源，按路径标签索引当前关卡的所有路径
+ *
+ * 路径实体由LevelSystem创建，同时登记到这里；
+ * 系统通过 world.getResource(PathRegistry.class) 获取后按标签直接取路径，
+ * 不再为了找到一条路径而扫描世界中的全部实体
+ */
+public class PathRegistry {
+    /**
+     * 按标签序号存放的路径 - 下标为 PathTag.ordinal()，未登记的标签为null
+     */
+    private final Path[] byTag;
+
+    /**
+     * 按登记顺序存放的路径 - 用于绘制和遍历
+     */
+    private final List<Path> paths;
+    private final List<Path> pathsView;
+
+    public PathRegistry() {
+        this.byTag = new Path[Path.PathTag.values().length];
+        this.paths = new ArrayList<>();
+        this.pathsView = Collections.unmodifiableList(paths);
+    }
+
+    /**
+     * 登记路径 - 同一标签的旧路径会被替换
+     */
+    public void register(Path path) {
+        Path previous = byTag[path.getTag().ordinal()];
+        if (previous != null) {
+            paths.remove(previous);
+        }
+        byTag[path.getTag().ordinal()] = path;
+        paths.add(path);
+    }
+
+    /**
+     * 按标签获取路径 - O(1)
+     * @return 对应的路径，未登记时返回null
+     */
+    public Path get(Path.PathTag tag) {
+        return tag != null ? byTag[tag.ordinal()] : null;
+    }
+
+    /**
+     * 获取所有已登记的路径
+     * @return 只读列表，由注册表复用
+     */
+    public List<Path> getPaths() {
+        return pathsView;
+    }
+
+    /**
+     * 已登记的路径数量
+     */
+    public int size() {
+        return paths.size();
+    }
+
+    /**
+     * 清空注册表 - 重新初始化关卡时调用
+     */
+    public void clear() {
+        for (int i = 0; i < byTag.length; i++) {
+            byTag[i] = null;
+        }
+        paths.clear();
+    }
+}
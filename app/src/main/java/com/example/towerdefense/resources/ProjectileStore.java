@@ -0,0 +1,170 @@
+package com.example.towerdefense.resources;
+
+import com.example.towerdefense.components.Tower;
+import com.example.towerdefense.ecs.EntityHandle;
+import com.example.towerdefense.ecs.World;
+
+/**
+ * 弹道存储 - 世界资源，以结构数组（SoA）形式保存所有飞行中的弹道
+ *
+ * 弹道不再是实体：没有Transform/Projectile组件对象，也不经过命令缓冲和原型迁移。
+ * 每个弹道占用各数组中的同一行，下标 0 ~ count-1 紧密排列：
+ * - x[i], y[i]: 当前位置
+ * - vx[i], vy[i]: 当前速度（像素/秒），也用于绘制朝向
+ * - targetX[i], targetY[i]: 瞄准点（范围伤害弹道飞向这里）
+ * - speed[i]: 速率（像素/秒）
+ * - target[i]: 追踪目标的实体句柄，范围伤害弹道为EntityHandle.NULL
+ * - damage[i], splashRadius[i], towerType[i]: 伤害、爆炸半径（0表示追踪单体弹道）、来源防御塔类型序号
+ *
+ * 容量固定，数组在创建时一次分配：spawn为常数时间且不产生垃圾；
+ * remove把最后一行搬到被删除的位置（交换删除），遍历中删除后应重新处理当前下标
+ */
+public final class ProjectileStore {
+    /**
+     * 默认容量 - 同时飞行的弹道上限
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private static final Tower.Type[] TOWER_TYPES = Tower.Type.values();
+
+    public final float[] x;
+    public final float[] y;
+    public final float[] vx;
+    public final float[] vy;
+    public final float[] targetX;
+    public final float[] targetY;
+    public final float[] speed;
+    public final int[] target;
+    public final int[] damage;
+    public final float[] splashRadius;
+    public final byte[] towerType;
+
+    /**
+     * 飞行中的弹道数量
+     */
+    public int count;
+
+    private final int capacity;
+
+    public ProjectileStore(int capacity) {
+        this.capacity = capacity;
+        this.x = new float[capacity];
+        this.y = new float[capacity];
+        this.vx = new float[capacity];
+        this.vy = new float[capacity];
+        this.targetX = new float[capacity];
+        this.targetY = new float[capacity];
+        this.speed = new float[capacity];
+        this.target = new int[capacity];
+        this.damage = new int[capacity];
+        this.splashRadius = new float[capacity];
+        this.towerType = new byte[capacity];
+    }
+
+    /**
+     * 获取世界中的弹道存储，不存在时以默认容量创建并注册为世界资源
+     */
+    public static ProjectileStore of(World world) {
+        ProjectileStore store = world.getResource(ProjectileStore.class);
+        if (store == null) {
+            store = new ProjectileStore(DEFAULT_CAPACITY);
+            world.setResource(ProjectileStore.class, store);
+        }
+        return store;
+    }
+
+    /**
+     * 发射一个弹道
+     * @param startX 起点X（防御塔位置）
+     * @param startY 起点Y
+     * @param aimX 瞄准点X（发射时目标的位置）
+     * @param aimY 瞄准点Y
+     * @param targetHandle 追踪目标的实体句柄，范围伤害弹道传EntityHandle.NULL
+     * @param projectileDamage 命中伤害
+     * @param projectileSpeed 速率（像素/秒）
+     * @param radius 爆炸半径，0表示追踪单体弹道
+     * @param type 来源防御塔类型
+     * @return 弹道所在行，存储已满时返回-1
+     */
+    public int spawn(float startX, float startY, float aimX, float aimY, int targetHandle,
+                     int projectileDamage, float projectileSpeed, float radius, Tower.Type type) {
+        if (count == capacity) {
+            return -1;
+        }
+        int i = count++;
+        x[i] = startX;
+        y[i] = startY;
+        targetX[i] = aimX;
+        targetY[i] = aimY;
+        speed[i] = projectileSpeed;
+        target[i] = targetHandle;
+        damage[i] = projectileDamage;
+        splashRadius[i] = radius;
+        towerType[i] = (byte) type.ordinal();
+        aim(i, aimX, aimY);
+        return i;
+    }
+
+    /**
+     * 让第 i 个弹道以当前速率朝指定点飞行（更新速度向量）
+     */
+    public void aim(int i, float aimX, float aimY) {
+        float dx = aimX - x[i];
+        float dy = aimY - y[i];
+        float distance = (float) Math.sqrt(dx * dx + dy * dy);
+        if (distance > 0f) {
+            vx[i] = dx / distance * speed[i];
+            vy[i] = dy / distance * speed[i];
+        } else {
+            vx[i] = 0f;
+            vy[i] = 0f;
+        }
+    }
+
+    /**
+     * 删除第 i 个弹道 - 最后一行搬到第 i 行
+     */
+    public void remove(int i) {
+        int last = --count;
+        if (i != last) {
+            x[i] = x[last];
+            y[i] = y[last];
+            vx[i] = vx[last];
+            vy[i] = vy[last];
+            targetX[i] = targetX[last];
+            targetY[i] = targetY[last];
+            speed[i] = speed[last];
+            target[i] = target[last];
+            damage[i] = damage[last];
+            splashRadius[i] = splashRadius[last];
+            towerType[i] = towerType[last];
+        }
+        target[last] = EntityHandle.NULL;
+    }
+
+    /**
+     * 是否为范围伤害弹道
+     */
+    public boolean isArea(int i) {
+        return splashRadius[i] > 0f;
+    }
+
+    public Tower.Type getTowerType(int i) {
+        return TOWER_TYPES[towerType[i]];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public boolean isFull() {
+        return count == capacity;
+    }
+
+    /**
+     * 清除所有弹道 - 重新开始关卡时调用
+     */
+    public void clear() {
+        count = 0;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.towerdefense.resources;
+
+/**
+ * 屏幕尺寸信息 - 世界资源，由GameEngine.setScreenSize更新
+ *
+ * 集中保存屏幕宽高和由此推导的网格大小，系统不必各自保存一份再分别计算
+ */
+public class ScreenMetrics {
+    /**
+     * 网格大小占屏幕宽度的比例，以及网格大小的上下限（像素）
+     */
+    public static final float GRID_SIZE_PERCENTAGE = 0.08f;
+    public static final int MIN_GRID_SIZE = 30;
+    public static final int MAX_GRID_SIZE = 100;
+    public static final int DEFAULT_GRID_SIZE = 60;
+
+    // 公共字段 - 每帧读取，直接访问
+    public int width;
+    public int height;
+    public int gridSize = DEFAULT_GRID_SIZE;
+
+    /**
+     * 更新屏幕尺寸，并重新计算网格大小
+     */
+    public void set(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.gridSize = computeGridSize(width);
+    }
+
+    /**
+     * 屏幕尺寸是否已经设置
+     */
+    public boolean isReady() {
+        return width > 0 && height > 0;
+    }
+
+    /**
+     * 根据屏幕宽度计算网格大小 - 屏幕宽度的8%，限制在30~100像素之间
+     */
+    public static int computeGridSize(int screenWidth) {
+        if (screenWidth <= 0) {
+            return DEFAULT_GRID_SIZE;
+        }
+        int gridSize = (int) (screenWidth * GRID_SIZE_PERCENTAGE);
+        return Math.max(MIN_GRID_SIZE, Math.min(gridSize, MAX_GRID_SIZE));
+    }
+}
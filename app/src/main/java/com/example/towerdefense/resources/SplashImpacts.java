@@ -0,0 +1,102 @@
+package com.example.towerdefense.resources;
+
+import com.example.towerdefense.components.Tower;
+import com.example.towerdefense.ecs.World;
+import java.util.Arrays;
+
+/**
+ * 范围伤害落点缓冲 - 世界资源，收集本帧落地的炮弹，由DamageSystem统一展开为伤害事件
+ *
+ * 数据结构（结构数组，每个落点一行）：
+ * - x[i], y[i], radii[i]: 爆炸圆心和半径
+ * - damages[i], towerTypes[i]: 基础伤害和来源防御塔类型序号，DamageEvents.NO_TOWER 表示不做类型修正
+ *
+ * 同一帧内的所有落点共用一次敌人网格重建（EnemyGrid），每个落点只查询爆炸圆覆盖的单元格
+ */
+public final class SplashImpacts {
+    private static final Tower.Type[] TOWER_TYPES = Tower.Type.values();
+
+    private float[] x = new float[16];
+    private float[] y = new float[16];
+    private float[] radii = new float[16];
+    private int[] damages = new int[16];
+    private byte[] towerTypes = new byte[16];
+    private int size;
+
+    /**
+     * 获取世界中的落点缓冲，不存在时创建并注册为世界资源
+     */
+    public static SplashImpacts of(World world) {
+        SplashImpacts impacts = world.getResource(SplashImpacts.class);
+        if (impacts == null) {
+            impacts = new SplashImpacts();
+            world.setResource(SplashImpacts.class, impacts);
+        }
+        return impacts;
+    }
+
+    /**
+     * 追加一个落点
+     * @param centerX 爆炸圆心X
+     * @param centerY 爆炸圆心Y
+     * @param radius 爆炸半径
+     * @param damage 基础伤害
+     * @param towerType 来源防御塔类型，为null时展开的伤害不做类型修正
+     */
+    public void add(float centerX, float centerY, float radius, int damage, Tower.Type towerType) {
+        if (size == x.length) {
+            int capacity = size * 2;
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            radii = Arrays.copyOf(radii, capacity);
+            damages = Arrays.copyOf(damages, capacity);
+            towerTypes = Arrays.copyOf(towerTypes, capacity);
+        }
+        x[size] = centerX;
+        y[size] = centerY;
+        radii[size] = radius;
+        damages[size] = damage;
+        towerTypes[size] = towerType != null ? (byte) towerType.ordinal() : DamageEvents.NO_TOWER;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public float getX(int i) {
+        return x[i];
+    }
+
+    public float getY(int i) {
+        return y[i];
+    }
+
+    public float getRadius(int i) {
+        return radii[i];
+    }
+
+    public int getDamage(int i) {
+        return damages[i];
+    }
+
+    /**
+     * 获取落点的来源防御塔类型
+     * @return 防御塔类型，不做类型修正的落点返回null
+     */
+    public Tower.Type getTowerType(int i) {
+        byte type = towerTypes[i];
+        return type != DamageEvents.NO_TOWER ? TOWER_TYPES[type] : null;
+    }
+
+    /**
+     * 清空缓冲 - 展开完成后由DamageSystem调用
+     */
+    public void clear() {
+        size = 0;
+    }
+}
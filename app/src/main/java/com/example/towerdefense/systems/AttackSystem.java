@@ -2,14 +2,25 @@ package com.example.towerdefense.systems;
 
 import com.example.towerdefense.ecs.ECSSystem;
 import com.example.towerdefense.ecs.Entity;
+import com.example.towerdefense.ecs.EntityHandle;
+import com.example.towerdefense.ecs.PositionStore;
+import com.example.towerdefense.ecs.Query2;
+import com.example.towerdefense.ecs.ScheduleQueue;
+import com.example.towerdefense.ecs.World;
 import com.example.towerdefense.components.Transform;
 import com.example.towerdefense.components.Tower;
 import com.example.towerdefense.components.Enemy;
-import com.example.towerdefense.components.Projectile;
+import com.example.towerdefense.components.Health;
+import com.example.towerdefense.components.Path;
+import com.example.towerdefense.resources.CombatStats;
+import com.example.towerdefense.resources.EnemyGrid;
+import com.example.towerdefense.resources.HitScheduler;
+import com.example.towerdefense.resources.PathRegistry;
+import com.example.towerdefense.resources.ProjectileStore;
+import com.example.towerdefense.resources.ScreenMetrics;
 import com.example.towerdefense.managers.ResourceManager;
 import com.example.towerdefense.GameEngine; // 添加这行导入
 import com.example.towerdefense.managers.AudioManager;
-import java.util.List;
 
 /**
  * 攻击系统 - 处理防御塔的攻击逻辑
@@ -20,6 +31,34 @@ public class AttackSystem extends ECSSystem {
     private ResourceManager resourceManager;
     private AudioManager audioManager;
     private GameEngine gameEngine; // 添加GameEngine引用
+    private EnemyGrid enemyGrid; // 敌人空间网格，由SpatialIndexSystem在敌人移动后重建
+    private CombatStats combatStats; // 战斗数值表（弹道速度、爆炸半径）
+    private Query2<Transform, Tower> towerQuery; // 防御塔类型化查询（Transform + Tower）
+
+    /**
+     * 默认弹道预算 - 同时模拟的弹道超过这个数量后，新的攻击改为解析结算
+     */
+    public static final int DEFAULT_PROJECTILE_BUDGET = 512;
+
+    // 弹道存储 - 弹道是其中的一行，不是实体
+    private ProjectileStore projectiles;
+    // 命中调度表 - 超出弹道预算或弹道不可见时，按飞行时间登记命中，不模拟弹道
+    private HitScheduler hitScheduler;
+    private int projectileBudget = DEFAULT_PROJECTILE_BUDGET;
+
+    // 单帧遍历状态 - 由update设置，供保存在字段中的回调使用，避免每帧创建lambda
+    private final Query2.Each<Transform, Tower> scheduleTower = this::scheduleTower;
+    private double currentTime;
+
+    // 就绪队列 - 按下次可以攻击的模拟时间排序，只有到期的塔才会被访问
+    private final ScheduleQueue readyQueue = new ScheduleQueue();
+    private final ScheduleQueue idleTowers = new ScheduleQueue(); // 本帧没有目标、下一帧重试的塔
+    private int towerQueryVersion = -1;
+
+    // 提前量瞄准 - 预测拦截点的迭代次数，以及predictIntercept的输出（避免每次发射分配对象）
+    private static final int INTERCEPT_ITERATIONS = 3;
+    private float interceptX;
+    private float interceptY;
     public void setGameEngine(GameEngine gameEngine) {
         this.gameEngine = gameEngine;
     }
@@ -33,6 +72,25 @@ public class AttackSystem extends ECSSystem {
     public AttackSystem() {
         super(Transform.class, Tower.class);
     }
+    @Override
+    public void setWorld(World world) {
+        super.setWorld(world);
+        this.enemyGrid = world != null ? EnemyGrid.of(world) : null;
+        this.combatStats = world != null ? CombatStats.of(world) : null;
+        this.towerQuery = world != null ? world.query(Transform.class, Tower.class) : null;
+        this.towerQueryVersion = -1; // 换了世界，下一帧重建就绪队列
+        this.projectiles = world != null ? ProjectileStore.of(world) : null;
+        this.hitScheduler = world != null ? HitScheduler.of(world) : null;
+    }
+
+    /**
+     * 设置弹道预算 - 同时模拟的弹道数量上限，超出后新的攻击按飞行时间解析结算
+     * @param budget 弹道数量上限，0表示所有攻击都解析结算（例如无界面批量模拟）
+     */
+    public void setProjectileBudget(int budget) {
+        this.projectileBudget = Math.max(0, budget);
+    }
+
     /**
      * 设置资源管理器
      */
@@ -40,138 +98,238 @@ public class AttackSystem extends ECSSystem {
         this.resourceManager = resourceManager;
     }
     /**
-     * 更新方法 - 每帧调用，处理所有防御塔的攻击逻辑
+     * 更新方法 - 每帧调用，只处理冷却已经结束的防御塔
      * @param deltaTime 距离上一帧的时间间隔（秒）
      */
     @Override
     public void update(float deltaTime) {
-        // 获取所有防御塔实体
-        List<Entity> towers = getEntities();
-
-        // 获取当前时间（毫秒），用于攻击冷却判断
-        // 修复：使用 System.currentTimeMillis() 而不是 ECSSystem.currentTimeMillis()
-        long currentTime = System.currentTimeMillis();
-
-        // 获取所有敌人实体，并过滤出具有Transform和Enemy组件的有效敌人
-        List<Entity> enemies = world.getAllEntities();
-        enemies.removeIf(e -> !e.hasComponent(Enemy.class) || !e.hasComponent(Transform.class));
-
-        // 遍历所有防御塔，检查是否可以攻击
-        for (Entity tower : towers) {
-            // 获取防御塔的位置和攻击属性组件
-            Transform towerTransform = tower.getComponent(Transform.class);
-            Tower towerComp = tower.getComponent(Tower.class);
-
-            // 检查防御塔是否可以攻击（冷却时间已过）
-            if (towerComp.canAttack(currentTime)) {
-                // 在攻击范围内寻找目标敌人
-                Entity target = findTargetInRange(towerTransform, towerComp, enemies);
-
-                if (target != null) {
-                    // 找到目标，创建弹道并攻击
-                    createProjectile(tower, target, towerComp.damage);
-                    // 更新最后攻击时间，开始冷却
-                    towerComp.lastAttackTime = currentTime;
-                }
+        // 冷却以世界的模拟时间为准：暂停时不前进，加速/无界面模拟时与真实时间无关
+        currentTime = world.getTime();
+
+        // 防御塔集合变化（建造、拆除、换关）时按各塔的冷却时间重建就绪队列；建塔很少发生，平时不遍历塔
+        int version = towerQuery.getQuery().getVersion();
+        if (version != towerQueryVersion) {
+            towerQueryVersion = version;
+            readyQueue.clear();
+            towerQuery.forEach(scheduleTower);
+        }
+
+        // 依次弹出已经到期的塔；没找到目标的塔放到下一帧再试，本帧不再弹出
+        while (readyQueue.hasDue(currentTime)) {
+            int handle = readyQueue.pop();
+            Entity tower = world.getEntity(handle);
+            if (tower == null) {
+                continue; // 塔已被销毁，惰性丢弃
+            }
+            Transform towerTransform = tower.getComponent(Transform.TYPE_ID);
+            Tower towerComp = tower.getComponent(Tower.TYPE_ID);
+            if (towerTransform == null || towerComp == null) {
+                continue;
+            }
+
+            if (updateTower(tower, towerTransform, towerComp)) {
+                readyQueue.push(handle, towerComp.nextAttackTime);
+            } else {
+                idleTowers.push(handle, currentTime);
             }
         }
+        while (!idleTowers.isEmpty()) {
+            readyQueue.push(idleTowers.pop(), currentTime);
+        }
+    }
+
+    /**
+     * 把防御塔按下次可以攻击的时间加入就绪队列 - 由towerQuery遍历时调用
+     */
+    private void scheduleTower(Entity tower, Transform towerTransform, Tower towerComp) {
+        readyQueue.push(tower.getId(), towerComp.nextAttackTime);
+    }
+
+    /**
+     * 处理单个冷却结束的防御塔的攻击
+     * @return true如果发起了攻击（开始冷却），false如果射程内没有目标
+     */
+    private boolean updateTower(Entity tower, Transform towerTransform, Tower towerComp) {
+        // 优先沿用锁定的目标，失效时才在攻击范围内重新寻找
+        Entity target = acquireTarget(towerTransform, towerComp);
+        if (target == null) {
+            return false;
+        }
+
+        // 找到目标，创建弹道并攻击
+        createProjectile(tower, target, towerComp.damage);
+        // 记录攻击时间，开始冷却
+        towerComp.onAttack(currentTime);
+        return true;
+    }
+
+    /**
+     * 获取防御塔本次攻击的目标 - 锁定的目标仍然有效时直接返回，否则重新搜索并锁定
+     * 目标优先级只在重新选择目标时生效，锁定期间不会因为出现更优的敌人而切换
+     */
+    private Entity acquireTarget(Transform towerTransform, Tower tower) {
+        Entity current = world.getEntity(tower.targetId);
+        if (current != null && isValidTarget(current, towerTransform, tower)) {
+            return current;
+        }
+
+        Entity target = findTargetInRange(towerTransform, tower);
+        tower.targetId = target != null ? target.getId() : EntityHandle.NULL;
+        return target;
+    }
+
+    /**
+     * 检查锁定的目标是否仍然有效：仍是存活的敌人，且仍在射程（法师塔为圆环）内
+     */
+    private boolean isValidTarget(Entity target, Transform towerTransform, Tower tower) {
+        if (!target.hasComponent(Enemy.TYPE_ID) || !target.hasComponent(Transform.TYPE_ID)) {
+            return false;
+        }
+        Health health = target.getComponent(Health.TYPE_ID);
+        if (health != null && health.current <= 0) {
+            return false;
+        }
+
+        // 直接读取位置列，比较距离平方
+        PositionStore positions = world.getPositions();
+        int slot = target.getIndex();
+        float dx = positions.x[slot] - towerTransform.getX();
+        float dy = positions.y[slot] - towerTransform.getY();
+        float distanceSq = dx * dx + dy * dy;
+        if (distanceSq > tower.range * tower.range) {
+            return false;
+        }
+        return tower.innerRange <= 0 || distanceSq > tower.innerRange * tower.innerRange;
     }
 
     /**
-     * 在防御塔攻击范围内寻找目标敌人
+     * 在防御塔攻击范围内按目标优先级寻找敌人 - 通过空间网格只检查攻击范围覆盖的单元格
      * @param towerTransform 防御塔的位置信息
      * @param tower 防御塔的攻击属性
-     * @param enemies 所有有效的敌人实体列表
-     * @return 攻击范围内的第一个敌人，如果没有则返回null
+     * @return 攻击范围内最符合优先级的敌人，如果没有则返回null
      */
-    private Entity findTargetInRange(Transform towerTransform, Tower tower, List<Entity> enemies) {
-        for (Entity enemy : enemies) {
-            Transform enemyTransform = enemy.getComponent(Transform.class);
-
-            // 手动计算距离
-            float dx = towerTransform.x - enemyTransform.x;
-            float dy = towerTransform.y - enemyTransform.y;
-            float distance = (float) Math.sqrt(dx * dx + dy * dy);
-
-            if (tower.getType() == Tower.Type.Artillery) {
-                // 法师塔：目标必须在圆环范围内（大于内圈且小于外圈）
-                if (distance > tower.innerRange && distance <= tower.range) {
-                    return enemy;
-                }
-            } else {
-                // 其他塔：目标在圆形范围内
-                if (distance <= tower.range) {
-                    return enemy;
-                }
-            }
-        }
-        return null;
+    private Entity findTargetInRange(Transform towerTransform, Tower tower) {
+        // 有内圈的塔（法师塔）：目标必须在圆环范围内（大于内圈且小于外圈）；其他塔内圈为0，即圆形范围
+        return enemyGrid.findTarget(towerTransform.getX(), towerTransform.getY(),
+                tower.innerRange, tower.range, tower.targetMode);
     }
 
     /**
-     * 创建弹道实体 - 当防御塔攻击时调用
+     * 发射弹道 - 当防御塔攻击时调用，弹道写入弹道存储而不是创建实体
      * @param tower 发起攻击的防御塔实体
      * @param target 攻击目标敌人实体
      * @param damage 弹道造成的伤害值
      */
     private void createProjectile(Entity tower, Entity target, int damage) {
         // 获取防御塔的位置，作为弹道的起始位置
-        Transform towerTransform = tower.getComponent(Transform.class);
-        Tower towerComp = tower.getComponent(Tower.class);
+        Transform towerTransform = tower.getComponent(Transform.TYPE_ID);
+        Tower towerComp = tower.getComponent(Tower.TYPE_ID);
 
         if (towerComp == null) return;
 
-        // 根据防御塔类型设置不同的弹道速度
-        float baseSpeed = 200f; // 基准速度
-        float projectileSpeed = baseSpeed;
+        // 弹道速度和爆炸半径来自战斗数值表
+        int t = towerComp.type.ordinal();
+        float projectileSpeed = combatStats.towerProjectileSpeed[t];
+        float areaRadius = combatStats.towerSplashRadius[t];
 
         // 获取目标当前位置
-        Transform targetTransform = target.getComponent(Transform.class);
-        float targetX = targetTransform.x;
-        float targetY = targetTransform.y;
+        Transform targetTransform = target.getComponent(Transform.TYPE_ID);
+        float targetX = targetTransform.getX();
+        float targetY = targetTransform.getY();
+
+        // 开启提前量时瞄准预测拦截点：弹道按直线飞行的时间内，敌人沿路径前进到的位置
+        if (combatStats.towerLeadTarget[t]) {
+            predictIntercept(towerTransform.getX(), towerTransform.getY(), target, targetX, targetY, projectileSpeed);
+            targetX = interceptX;
+            targetY = interceptY;
+        }
+
+        // 追踪弹道记录目标句柄；范围伤害弹道（不追踪）只飞向发射时的瞄准点
+        boolean isArea = areaRadius > 0f;
+        int targetHandle = isArea ? EntityHandle.NULL : target.getId();
+
+        // 弹道在预算内且可见时才模拟飞行，否则（或存储已满时）按飞行时间登记命中
+        int index = -1;
+        if (projectiles.count < projectileBudget
+                && isVisible(towerTransform.getX(), towerTransform.getY(), targetX, targetY)) {
+            index = projectiles.spawn(towerTransform.getX(), towerTransform.getY(), targetX, targetY,
+                    targetHandle, damage, projectileSpeed, areaRadius, towerComp.type);
+        }
+        if (index < 0) {
+            float dx = targetX - towerTransform.getX();
+            float dy = targetY - towerTransform.getY();
+            double flightTime = projectileSpeed > 0f ? Math.sqrt(dx * dx + dy * dy) / projectileSpeed : 0.0;
+            if (isArea) {
+                hitScheduler.scheduleSplash(currentTime + flightTime, targetX, targetY, areaRadius, damage, towerComp.type);
+            } else {
+                hitScheduler.scheduleHit(currentTime + flightTime, targetHandle, damage, towerComp.type);
+            }
+        }
 
         switch (towerComp.type) {
             case Infantry:
-                // 弓箭塔：追踪弹道，基准速度 × 1.25倍
-                projectileSpeed = baseSpeed * 1.25f;
-
-                // 创建追踪弹道
-                Entity projectile = world.createEntity();
-                projectile.addComponent(new Transform(towerTransform.x, towerTransform.y));
-                projectile.addComponent(new Projectile(target, damage, projectileSpeed, towerComp.type));
                 // [新增音效] 播放弓箭发射音效
                 if (audioManager != null) audioManager.playShootArrow();
-                System.out.println("AttackSystem: 弓箭塔发射追踪弹道，速度: " + projectileSpeed);
                 break;
 
             case Anti_tank:
-                // 炮塔：范围伤害，基准速度 × 0.5倍，小范围
-                projectileSpeed = baseSpeed * 0.5f;
-                float cannonAreaRadius = 60f; // 炮塔范围伤害半径
-
-                // 创建范围伤害弹道（不追踪）
-                Entity cannonProjectile = world.createEntity();
-                cannonProjectile.addComponent(new Transform(towerTransform.x, towerTransform.y));
-                cannonProjectile.addComponent(new Projectile(targetX, targetY, damage, projectileSpeed, true, cannonAreaRadius, towerComp.type));
-                // [新增音效] 播放炮击音效
-                if (audioManager != null) audioManager.playShootCannon();
-                System.out.println("AttackSystem: 炮塔发射范围伤害弹道，速度: " + projectileSpeed + ", 范围半径: " + cannonAreaRadius);
-                break;
-
             case Artillery:
-                // 法师塔：范围伤害，基准速度 × 0.75倍，大范围
-                projectileSpeed = baseSpeed * 1.1f;
-                float mageAreaRadius = 120f; // 法师塔范围伤害半径
-
-                // 创建范围伤害弹道（不追踪）
-                Entity mageProjectile = world.createEntity();
-                mageProjectile.addComponent(new Transform(towerTransform.x, towerTransform.y));
-                mageProjectile.addComponent(new Projectile(targetX, targetY, damage, projectileSpeed, true, mageAreaRadius, towerComp.type));
                 // [新增音效] 播放炮击音效
                 if (audioManager != null) audioManager.playShootCannon();
-                System.out.println("AttackSystem: 法师塔发射范围伤害弹道，速度: " + projectileSpeed + ", 范围半径: " + mageAreaRadius);
                 break;
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * 检查弹道是否可见 - 发射点或瞄准点在屏幕内
+     * 屏幕尺寸尚未设置（无界面运行）时所有弹道都不可见
+     */
+    private boolean isVisible(float fromX, float fromY, float toX, float toY) {
+        ScreenMetrics metrics = world.getResource(ScreenMetrics.class);
+        if (metrics == null || !metrics.isReady()) {
+            return false;
+        }
+        return isOnScreen(fromX, fromY, metrics) || isOnScreen(toX, toY, metrics);
+    }
+
+    private static boolean isOnScreen(float px, float py, ScreenMetrics metrics) {
+        return px >= 0f && px <= metrics.width && py >= 0f && py <= metrics.height;
+    }
+
+    /**
+     * 预测拦截点 - 结果写入interceptX/interceptY
+     * 敌人沿折线路径移动，直线外推在拐角处会偏离，因此沿路径弧长外推：
+     * 以弹道飞到预测点的时间 t 推算敌人前进 speed * t 后的位置，再用新位置重新计算 t，迭代几次即收敛
+     * @param fromX 发射点X
+     * @param fromY 发射点Y
+     * @param target 目标敌人
+     * @param targetX 目标当前X
+     * @param targetY 目标当前Y
+     * @param projectileSpeed 弹道速度（像素/秒）
+     */
+    private void predictIntercept(float fromX, float fromY, Entity target,
+                                  float targetX, float targetY, float projectileSpeed) {
+        interceptX = targetX;
+        interceptY = targetY;
+
+        Enemy enemy = target.getComponent(Enemy.TYPE_ID);
+        PathRegistry paths = world.getResource(PathRegistry.class);
+        Path path = (enemy != null && paths != null) ? paths.get(enemy.pathTag) : null;
+        if (path == null || enemy.speed <= 0f || projectileSpeed <= 0f) {
+            return;
+        }
+
+        // 路径几何已由MovementSystem按当前屏幕尺寸更新
+        float totalLength = path.getTotalLength();
+        int segment = enemy.pathIndex;
+        for (int i = 0; i < INTERCEPT_ITERATIONS; i++) {
+            float dx = interceptX - fromX;
+            float dy = interceptY - fromY;
+            float flightTime = (float) Math.sqrt(dx * dx + dy * dy) / projectileSpeed;
+            float distance = Math.min(enemy.distanceAlongPath + enemy.speed * flightTime, totalLength);
+            segment = path.findSegment(distance, segment);
+            interceptX = path.getXAt(segment, distance);
+            interceptY = path.getYAt(segment, distance);
+        }
+    }
+}
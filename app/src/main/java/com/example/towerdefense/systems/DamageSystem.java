@@ -0,0 +1,128 @@
+package com.example.towerdefense.systems;
+
+import com.example.towerdefense.ecs.ECSSystem;
+import com.example.towerdefense.ecs.Entity;
+import com.example.towerdefense.ecs.EntityCommandBuffer;
+import com.example.towerdefense.ecs.World;
+import com.example.towerdefense.components.Enemy;
+import com.example.towerdefense.components.Health;
+import com.example.towerdefense.components.Tower;
+import com.example.towerdefense.resources.CombatStats;
+import com.example.towerdefense.resources.DamageEvents;
+import com.example.towerdefense.resources.EnemyGrid;
+import com.example.towerdefense.resources.SplashImpacts;
+import com.example.towerdefense.GameEngine;
+
+/**
+ * 伤害系统 - 统一结算本帧收集到的伤害事件（DamageEvents）
+ * 必须注册在SpatialIndexSystem之后：范围伤害落点要通过本帧重建的敌人网格展开
+ *
+ * 结算流程：
+ * 0. 把本帧的范围伤害落点（SplashImpacts）逐个查询敌人网格，展开为伤害事件
+ * 1. 按句柄解析目标，已失效的目标直接跳过
+ * 2. 按敌人类型和防御塔类型修正伤害，扣减生命值
+ * 3. 生命值耗尽时结算一次击杀（发放奖励），从敌人网格剔除，并通过命令缓冲销毁
+ * 4. 同一帧内已被击杀的敌人不再结算，奖励不会重复发放
+ *
+ * 被销毁的敌人在本系统结束后的同步点一次性移除
+ */
+public class DamageSystem extends ECSSystem {
+    private GameEngine gameEngine;
+    private DamageEvents damageEvents;
+    private CombatStats combatStats;
+    private SplashImpacts splashImpacts;
+    private EnemyGrid enemyGrid;
+
+    // 展开落点时的回调及当前落点的伤害属性，保存在字段中避免每次查询创建lambda
+    private final EnemyGrid.Visitor splashVisitor = this::addSplashDamage;
+    private int splashDamage;
+    private Tower.Type splashTowerType;
+
+    public DamageSystem() {
+        super(Enemy.class, Health.class);
+    }
+
+    public void setGameEngine(GameEngine gameEngine) {
+        this.gameEngine = gameEngine;
+    }
+
+    @Override
+    public void setWorld(World world) {
+        super.setWorld(world);
+        this.damageEvents = world != null ? DamageEvents.of(world) : null;
+        this.combatStats = world != null ? CombatStats.of(world) : null;
+        this.splashImpacts = world != null ? SplashImpacts.of(world) : null;
+        this.enemyGrid = world != null ? EnemyGrid.of(world) : null;
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        expandSplashImpacts();
+        if (damageEvents.isEmpty()) {
+            return;
+        }
+
+        EntityCommandBuffer commands = world.getCommandBuffer();
+        int defeated = 0;
+
+        for (int i = 0; i < damageEvents.size(); i++) {
+            Entity target = world.getEntity(damageEvents.getTarget(i));
+            if (target == null) {
+                continue; // 目标已被销毁
+            }
+            Enemy enemy = target.getComponent(Enemy.TYPE_ID);
+            Health health = target.getComponent(Health.TYPE_ID);
+            if (enemy == null || health == null || health.current <= 0) {
+                continue; // 不是敌人，或本帧已被击杀
+            }
+
+            // 根据敌人类型和防御塔类型查伤害倍率矩阵
+            Tower.Type towerType = damageEvents.getTowerType(i);
+            int amount = damageEvents.getAmount(i);
+            int actualDamage = towerType != null ? combatStats.adjustDamage(towerType, enemy.type, amount) : amount;
+
+            health.current -= actualDamage;
+            if (health.current <= 0) {
+                health.current = 0;
+                if (damageEvents.hasFlag(i, DamageEvents.FLAG_AIR_STRIKE)) {
+                    enemy.killedByAirStrike = true;
+                }
+                if (gameEngine != null) {
+                    gameEngine.onEnemyDefeated(enemy);
+                }
+                enemyGrid.remove(target);
+                commands.destroy(target);
+                defeated++;
+            } else {
+                // 同步网格中的生命值，本帧之后按生命值选敌时使用扣血后的数值
+                enemyGrid.updateHealth(target, health.current);
+            }
+        }
+
+        if (defeated > 0) {
+            System.out.println("DamageSystem: 结算 " + damageEvents.size() + " 个伤害事件，击败 " + defeated + " 个敌人");
+        }
+        damageEvents.clear();
+    }
+
+    /**
+     * 把本帧的范围伤害落点展开为伤害事件 - 每个落点只访问爆炸圆覆盖的网格单元格，比较距离平方
+     */
+    private void expandSplashImpacts() {
+        for (int i = 0; i < splashImpacts.size(); i++) {
+            splashDamage = splashImpacts.getDamage(i);
+            splashTowerType = splashImpacts.getTowerType(i);
+            enemyGrid.queryRadius(splashImpacts.getX(i), splashImpacts.getY(i),
+                    splashImpacts.getRadius(i), splashVisitor);
+        }
+        splashImpacts.clear();
+    }
+
+    /**
+     * 范围查询回调 - 爆炸圆内的每个敌人追加一次伤害事件（来源类型为null时结算不做类型修正）
+     */
+    private boolean addSplashDamage(Entity enemy, float distanceSq) {
+        damageEvents.add(enemy.getId(), splashDamage, splashTowerType);
+        return true;
+    }
+}
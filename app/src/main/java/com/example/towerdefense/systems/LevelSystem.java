@@ -5,6 +5,9 @@ import com.example.towerdefense.ecs.World;
 import com.example.towerdefense.ecs.Entity;
 import com.example.towerdefense.components.Path;
 import com.example.towerdefense.components.Enemy;
+import com.example.towerdefense.resources.LevelConfig;
+import com.example.towerdefense.resources.PathRegistry;
+import com.example.towerdefense.resources.ScreenMetrics;
 import android.graphics.Color;
 
 import java.util.ArrayList;
@@ -36,6 +39,14 @@ public class LevelSystem extends ECSSystem {
     public void initializeLevel(World world) {
         this.world = world;
 
+        // 路径注册表由GameEngine创建；重新初始化关卡时先清空上一关的路径
+        PathRegistry paths = world.getResource(PathRegistry.class);
+        if (paths == null) {
+            paths = new PathRegistry();
+            world.setResource(PathRegistry.class, paths);
+        }
+        paths.clear();
+
         // 根据关卡ID初始化不同的关卡配置
         switch (currentLevelId) {
             case 0: // 训练关
@@ -51,6 +62,24 @@ public class LevelSystem extends ECSSystem {
             default:
                 initializeTrainingLevel(); // 默认训练关
         }
+
+        // 发布当前关卡配置，供生成系统读取
+        world.setResource(LevelConfig.class, new LevelConfig(currentLevelId, getCurrentWaveConfig()));
+    }
+
+    /**
+     * 创建路径实体，并按标签登记到世界的路径注册表
+     */
+    private void createPath(Path path) {
+        Entity pathEntity = world.createEntity();
+        pathEntity.addComponent(path);
+        world.getResource(PathRegistry.class).register(path);
+
+        // 屏幕尺寸已知时（例如切换关卡）立即计算屏幕坐标缓存
+        ScreenMetrics screen = world.getResource(ScreenMetrics.class);
+        if (screen != null && screen.isReady()) {
+            path.updateScreenGeometry(screen.width, screen.height);
+        }
     }
 
     /**
@@ -81,8 +110,7 @@ public class LevelSystem extends ECSSystem {
      */
     private void createTrainingLevelPaths() {
         // 创建路径A - 较长的路径
-        Entity pathA = world.createEntity();
-        pathA.addComponent(new Path(
+        createPath(new Path(
                 Path.PathTag.PATH_A,
                 new float[][]{
                         {0.3f, 0.3f},
@@ -95,8 +123,7 @@ public class LevelSystem extends ECSSystem {
         ));
 
         // 创建路径B - 较短的路径
-        Entity pathB = world.createEntity();
-        pathB.addComponent(new Path(
+        createPath(new Path(
                 Path.PathTag.PATH_B,
                 new float[][]{
                         {0.3f, 0.7f},
@@ -114,8 +141,7 @@ public class LevelSystem extends ECSSystem {
      */
     private void createLevel1Paths() {
         // 创建路径A
-        Entity pathA = world.createEntity();
-        pathA.addComponent(new Path(
+        createPath(new Path(
                 Path.PathTag.PATH_A,
                 new float[][]{
                         {0.05f, 0.15f},
@@ -128,8 +154,7 @@ public class LevelSystem extends ECSSystem {
         ));
 
         // 创建路径B
-        Entity pathB = world.createEntity();
-        pathB.addComponent(new Path(
+        createPath(new Path(
                 Path.PathTag.PATH_B,
                 new float[][]{
                         {0.05f, 0.5f},
@@ -149,8 +174,7 @@ public class LevelSystem extends ECSSystem {
         ));
 
         // 创建路径C
-        Entity pathC = world.createEntity();
-        pathC.addComponent(new Path(
+        createPath(new Path(
                 Path.PathTag.PATH_C,
                 new float[][]{
                         {0.05f, 0.85f},
@@ -173,8 +197,7 @@ public class LevelSystem extends ECSSystem {
          */
         private void createLevel2Paths() {
             // 创建路径A
-            Entity pathA = world.createEntity();
-            pathA.addComponent(new Path(
+            createPath(new Path(
                     Path.PathTag.PATH_A,
                     new float[][]{
                             {0.05f, 0.09f},
@@ -186,8 +209,7 @@ public class LevelSystem extends ECSSystem {
             ));
 
             // 创建路径B
-            Entity pathB = world.createEntity();
-            pathB.addComponent(new Path(
+            createPath(new Path(
                     Path.PathTag.PATH_B,
                     new float[][]{
                             {0.05f, 0.87f},
@@ -200,8 +222,7 @@ public class LevelSystem extends ECSSystem {
             ));
 
             // 创建路径C
-            Entity pathC = world.createEntity();
-            pathC.addComponent(new Path(
+            createPath(new Path(
                     Path.PathTag.PATH_C,
                     new float[][]{
                             {0.95f, 0.65f},
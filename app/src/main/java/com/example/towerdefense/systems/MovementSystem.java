@@ -2,18 +2,17 @@ package com.example.towerdefense.systems;
 
 import com.example.towerdefense.ecs.ECSSystem;
 import com.example.towerdefense.ecs.Entity;
+import com.example.towerdefense.ecs.Query2;
+import com.example.towerdefense.ecs.World;
+import com.example.towerdefense.resources.PathRegistry;
 import com.example.towerdefense.components.Transform;
 import com.example.towerdefense.components.Enemy;
-import com.example.towerdefense.components.Projectile;
-import com.example.towerdefense.components.Health;
 import com.example.towerdefense.components.Path;
-import com.example.towerdefense.components.Tower;
-import java.util.List;
 import com.example.towerdefense.GameEngine;
 
 /**
- * 移动系统 - 处理游戏中所有实体的移动逻辑
- * 包括敌人沿着路径移动和弹道向目标移动
+ * 移动系统 - 处理敌人沿着路径的移动逻辑
+ * 弹道不是实体，由ProjectileSystem在本系统之后推进
  * 继承自ECSSystem，处理所有具有Transform组件的实体
  */
 public class MovementSystem extends ECSSystem {
@@ -21,6 +20,13 @@ public class MovementSystem extends ECSSystem {
     private float screenWidth;
     private float screenHeight;
 
+    // 类型化查询 - 逐帧遍历时直接得到组件
+    private Query2<Transform, Enemy> enemyMoves;
+
+    // 保存在字段中的遍历回调，避免每帧创建lambda；deltaTime由update设置
+    private final Query2.Each<Transform, Enemy> moveEnemyAction = this::moveEnemy;
+    private float deltaTime;
+
     public void setGameEngine(GameEngine gameEngine) {
         this.gameEngine = gameEngine;
     }
@@ -35,39 +41,28 @@ public class MovementSystem extends ECSSystem {
     }
 
     @Override
-    public void update(float deltaTime) {
-        List<Entity> entities = getEntities();
-        List<Entity> projectiles = new java.util.ArrayList<>();
-
-        // 遍历所有实体，分离敌人和弹道的处理
-        for (Entity entity : entities) {
-            Transform transform = entity.getComponent(Transform.class);
-
-            if (entity.hasComponent(Enemy.class)) {
-                moveEnemy(entity, transform, deltaTime);
-            }
+    public void setWorld(World world) {
+        super.setWorld(world);
+        enemyMoves = world != null ? world.query(Transform.class, Enemy.class) : null;
+    }
 
-            if (entity.hasComponent(Projectile.class)) {
-                projectiles.add(entity);
-            }
-        }
+    @Override
+    public void update(float deltaTime) {
+        this.deltaTime = deltaTime;
 
-        // 单独处理所有弹道
-        if (!projectiles.isEmpty()) {
-            updateProjectiles(deltaTime, projectiles);
-        }
+        // 移动所有敌人
+        enemyMoves.forEach(moveEnemyAction);
     }
 
     /**
      * 移动敌人 - 处理敌人沿着路径的移动，包含高地减速效果
      */
-    private void moveEnemy(Entity enemy, Transform transform, float deltaTime) {
-        Enemy enemyComp = enemy.getComponent(Enemy.class);
+    private void moveEnemy(Entity enemy, Transform transform, Enemy enemyComp) {
         Path enemyPath = getEnemyPath(enemyComp);
 
         if (enemyPath == null) {
             if (world != null) {
-                world.removeEntity(enemy);
+                world.getCommandBuffer().destroy(enemy);
             }
             return;
         }
@@ -76,7 +71,7 @@ public class MovementSystem extends ECSSystem {
         if (gameEngine != null && gameEngine.hasHighlandArea() && gameEngine.isHighlandControlled()) {
             // 检查敌人是否在高地区域内
             boolean wasInHighland = enemyComp.isInHighland;
-            boolean isNowInHighland = gameEngine.isInHighlandArea(transform.x, transform.y);
+            boolean isNowInHighland = gameEngine.isInHighlandArea(transform.getX(), transform.getY());
 
             // 处理高地状态变化
             if (wasInHighland != isNowInHighland) {
@@ -99,29 +94,23 @@ public class MovementSystem extends ECSSystem {
             }
         }
 
-        float[][] pathPoints = enemyPath.convertToScreenCoordinates(screenWidth, screenHeight);
-
-        if (enemyComp.pathIndex < pathPoints.length) {
-            float targetX = pathPoints[enemyComp.pathIndex][0];
-            float targetY = pathPoints[enemyComp.pathIndex][1];
+        // 弧长参数化移动：前进距离只需一次加法，位置由累计弧长表插值得到，
+        // 速度再快也不会越过路径拐点
+        enemyPath.updateScreenGeometry(screenWidth, screenHeight);
+        enemyComp.distanceAlongPath += enemyComp.speed * deltaTime;
 
-            float dx = targetX - transform.x;
-            float dy = targetY - transform.y;
-            float distance = (float) Math.sqrt(dx * dx + dy * dy);
-
-            if (distance < 5) {
-                enemyComp.pathIndex++;
-            } else {
-                transform.x += (dx / distance) * enemyComp.speed * deltaTime;
-                transform.y += (dy / distance) * enemyComp.speed * deltaTime;
-            }
+        if (enemyComp.distanceAlongPath < enemyPath.getTotalLength()) {
+            int segment = enemyPath.findSegment(enemyComp.distanceAlongPath, enemyComp.pathIndex);
+            enemyComp.pathIndex = segment;
+            transform.set(enemyPath.getXAt(segment, enemyComp.distanceAlongPath),
+                    enemyPath.getYAt(segment, enemyComp.distanceAlongPath));
         } else {
             // 敌人到达终点
             if (gameEngine != null) {
                 gameEngine.onEnemyReachedEnd();
             }
             if (world != null) {
-                world.removeEntity(enemy);
+                world.getCommandBuffer().destroy(enemy);
             }
         }
     }
@@ -133,143 +122,8 @@ public class MovementSystem extends ECSSystem {
         if (world == null) {
             return null;
         }
-
-        List<Entity> pathEntities = world.getEntitiesWithComponent(Path.class);
-        for (Entity pathEntity : pathEntities) {
-            Path path = pathEntity.getComponent(Path.class);
-            if (path.getTag() == enemy.pathTag) {
-                return path;
-            }
-        }
-        return null;
-    }
-
-    /**
-     * 更新所有弹道的移动
-     */
-    private void updateProjectiles(float deltaTime, List<Entity> projectiles) {
-        for (Entity projectile : projectiles) {
-            Transform transform = projectile.getComponent(Transform.class);
-            Projectile projectileComp = projectile.getComponent(Projectile.class);
-
-            if (transform == null || projectileComp == null) continue;
-
-            if (projectileComp.isAreaDamage) {
-                // 范围伤害弹道：飞向固定目标位置
-                updateAreaDamageProjectile(projectile, transform, projectileComp, deltaTime);
-            } else {
-                // 追踪弹道：飞向移动目标
-                updateTrackingProjectile(projectile, transform, projectileComp, deltaTime);
-            }
-        }
-    }
-
-    /**
-     * 更新范围伤害弹道
-     */
-    private void updateAreaDamageProjectile(Entity projectile, Transform transform,
-                                            Projectile projectileComp, float deltaTime) {
-        float dx = projectileComp.targetX - transform.x;
-        float dy = projectileComp.targetY - transform.y;
-        float distance = (float) Math.sqrt(dx * dx + dy * dy);
-
-        if (distance < 5f) {
-            applyAreaDamage(projectile, transform.x, transform.y,
-                    projectileComp.damage, projectileComp.areaRadius);
-            world.removeEntity(projectile);
-        } else {
-            float directionX = dx / distance;
-            float directionY = dy / distance;
-            transform.x += directionX * projectileComp.speed * deltaTime;
-            transform.y += directionY * projectileComp.speed * deltaTime;
-        }
-    }
-
-    /**
-     * 更新追踪弹道
-     */
-    private void updateTrackingProjectile(Entity projectile, Transform transform,
-                                          Projectile projectileComp, float deltaTime) {
-        Entity target = projectileComp.target;
-        if (target == null || !target.hasComponent(Transform.class)) {
-            world.removeEntity(projectile);
-            return;
-        }
-
-        Transform targetTransform = target.getComponent(Transform.class);
-        float dx = targetTransform.x - transform.x;
-        float dy = targetTransform.y - transform.y;
-        float distance = (float) Math.sqrt(dx * dx + dy * dy);
-
-        if (distance < 10f) {
-            applySingleTargetDamage(projectile, target, projectileComp.damage);
-            world.removeEntity(projectile);
-        } else {
-            float directionX = dx / distance;
-            float directionY = dy / distance;
-            transform.x += directionX * projectileComp.speed * deltaTime;
-            transform.y += directionY * projectileComp.speed * deltaTime;
-        }
-    }
-
-    /**
-     * 应用单目标伤害 - 添加伤害修正
-     */
-    private void applySingleTargetDamage(Entity projectile, Entity target, int damage) {
-        Projectile projectileComp = projectile.getComponent(Projectile.class);
-        Tower.Type towerType = projectileComp != null ? projectileComp.towerType : Tower.Type.Infantry;
-
-        applyDamageToEnemy(target, damage, towerType);
-        System.out.println("MovementSystem: 单目标伤害命中敌人，防御塔类型: " + towerType);
-    }
-
-    /**
-     * 应用范围伤害 - 添加伤害修正
-     */
-    private void applyAreaDamage(Entity projectile, float centerX, float centerY,
-                                 int damage, float radius) {
-        Projectile projectileComp = projectile.getComponent(Projectile.class);
-        Tower.Type towerType = projectileComp != null ? projectileComp.towerType : Tower.Type.Infantry;
-
-        List<Entity> enemies = world.getEntitiesWithComponent(Enemy.class);
-
-        for (Entity enemy : enemies) {
-            Transform enemyTransform = enemy.getComponent(Transform.class);
-            if (enemyTransform == null) continue;
-
-            float dx = enemyTransform.x - centerX;
-            float dy = enemyTransform.y - centerY;
-            float distance = (float) Math.sqrt(dx * dx + dy * dy);
-
-            if (distance <= radius) {
-                applyDamageToEnemy(enemy, damage, towerType);
-                System.out.println("MovementSystem: 范围伤害命中敌人，防御塔类型: " + towerType + ", 距离: " + distance);
-            }
-        }
-    }
-
-    /**
-     * 对敌人应用伤害 - 添加伤害修正
-     */
-    private void applyDamageToEnemy(Entity enemy, int baseDamage, Tower.Type towerType) {
-        Enemy enemyComp = enemy.getComponent(Enemy.class);
-        Health health = enemy.getComponent(Health.class);
-
-        if (health != null && enemyComp != null) {
-            // 根据敌人类型和防御塔类型计算修正后的伤害
-            int actualDamage = enemyComp.calculateAdjustedDamage(towerType, baseDamage);
-
-            health.current -= actualDamage;
-            System.out.println("MovementSystem: 对" + enemyComp.type + "造成 " + actualDamage + " 点伤害，剩余生命: " + health.current);
-
-            // 检查敌人是否被击败
-            if (health.current <= 0) {
-                if (gameEngine != null) {
-                    gameEngine.onEnemyDefeated(enemyComp);
-                }
-                world.removeEntity(enemy);
-                System.out.println("MovementSystem: 敌人被击败");
-            }
-        }
+        // 路径注册表是世界资源，按标签直接取路径，与实体数量无关
+        PathRegistry paths = world.getResource(PathRegistry.class);
+        return paths != null ? paths.get(enemy.pathTag) : null;
     }
-}
\ No newline at end of file
+}
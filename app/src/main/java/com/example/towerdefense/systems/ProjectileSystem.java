@@ -0,0 +1,154 @@
+package com.example.towerdefense.systems;
+
+import com.example.towerdefense.ecs.ECSSystem;
+import com.example.towerdefense.ecs.Entity;
+import com.example.towerdefense.ecs.PositionStore;
+import com.example.towerdefense.ecs.World;
+import com.example.towerdefense.components.Health;
+import com.example.towerdefense.resources.DamageEvents;
+import com.example.towerdefense.resources.HitScheduler;
+import com.example.towerdefense.resources.ProjectileStore;
+import com.example.towerdefense.resources.SplashImpacts;
+
+/**
+ * 弹道系统 - 推进弹道存储（ProjectileStore）中所有飞行中的弹道
+ * 注册在MovementSystem之后：追踪弹道飞向敌人本帧移动后的位置
+ *
+ * - 追踪弹道：每帧朝目标当前位置飞行，进入目标10像素范围时命中，记录一次伤害事件
+ * - 范围伤害弹道：飞向发射时的瞄准点，进入瞄准点5像素范围时在瞄准点落地，记录一个爆炸落点
+ * 命中检测是扫掠检测：用本帧的整段位移线段与命中圆求交，而不是只看移动后的位置，
+ * 因此弹道再快、deltaTime再大也不会越过目标来回振荡，命中总在到达目标的那一帧判定
+ * 命中或目标丢失的弹道直接从存储中交换删除，不产生实体销毁和组件回收
+ * 每帧开始时先结算命中调度表（HitScheduler）中已到期的解析命中，结果同样写入伤害事件和爆炸落点
+ */
+public class ProjectileSystem extends ECSSystem {
+    private static final float TRACKING_HIT_DISTANCE = 10f;
+    private static final float AREA_HIT_DISTANCE = 5f;
+
+    private ProjectileStore projectiles;
+    private DamageEvents damageEvents;
+    private SplashImpacts splashImpacts;
+    private HitScheduler hitScheduler;
+
+    public ProjectileSystem() {
+        super(); // 无必需组件，只遍历弹道存储和命中调度表
+    }
+
+    @Override
+    public void setWorld(World world) {
+        super.setWorld(world);
+        this.projectiles = world != null ? ProjectileStore.of(world) : null;
+        this.damageEvents = world != null ? DamageEvents.of(world) : null;
+        this.splashImpacts = world != null ? SplashImpacts.of(world) : null;
+        this.hitScheduler = world != null ? HitScheduler.of(world) : null;
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        // 没有模拟弹道的攻击：飞行时间已到的命中直接结算
+        hitScheduler.resolveDue(world.getTime(), damageEvents, splashImpacts);
+
+        PositionStore positions = world.getPositions();
+
+        int i = 0;
+        while (i < projectiles.count) {
+            boolean flying = projectiles.isArea(i)
+                    ? updateAreaProjectile(i, deltaTime)
+                    : updateTrackingProjectile(i, positions, deltaTime);
+            if (flying) {
+                i++;
+            } else {
+                // 交换删除：最后一个弹道搬到第 i 行，下一轮继续处理第 i 行
+                projectiles.remove(i);
+            }
+        }
+    }
+
+    /**
+     * 更新范围伤害弹道
+     * @return false表示弹道已落地，应当删除
+     */
+    private boolean updateAreaProjectile(int i, float deltaTime) {
+        float aimX = projectiles.targetX[i];
+        float aimY = projectiles.targetY[i];
+
+        if (sweptHit(i, aimX, aimY, AREA_HIT_DISTANCE, deltaTime)) {
+            // 在瞄准点落地并记录落点，本帧所有落点在敌人网格重建后由DamageSystem统一展开
+            splashImpacts.add(aimX, aimY, projectiles.splashRadius[i],
+                    projectiles.damage[i], projectiles.getTowerType(i));
+            return false;
+        }
+        advance(i, deltaTime);
+        return true;
+    }
+
+    /**
+     * 更新追踪弹道
+     * @return false表示弹道已命中或目标已丢失，应当删除
+     */
+    private boolean updateTrackingProjectile(int i, PositionStore positions, float deltaTime) {
+        // 通过句柄解析目标：目标已被销毁（或槽位已被复用）时返回null
+        // 本帧已被击败、等待同步点销毁的目标同样视为丢失
+        Entity target = world.getEntity(projectiles.target[i]);
+        if (target == null || isDefeated(target)) {
+            return false;
+        }
+
+        int slot = target.getIndex();
+        float aimX = positions.x[slot];
+        float aimY = positions.y[slot];
+
+        // 先朝目标本帧移动后的位置修正方向，再检测本帧位移是否扫过目标
+        projectiles.targetX[i] = aimX;
+        projectiles.targetY[i] = aimY;
+        projectiles.aim(i, aimX, aimY);
+
+        if (sweptHit(i, aimX, aimY, TRACKING_HIT_DISTANCE, deltaTime)) {
+            damageEvents.add(projectiles.target[i], projectiles.damage[i], projectiles.getTowerType(i));
+            return false;
+        }
+        advance(i, deltaTime);
+        return true;
+    }
+
+    /**
+     * 按当前速度推进第 i 个弹道
+     */
+    private void advance(int i, float deltaTime) {
+        projectiles.x[i] += projectiles.vx[i] * deltaTime;
+        projectiles.y[i] += projectiles.vy[i] * deltaTime;
+    }
+
+    /**
+     * 扫掠命中检测 - 第 i 个弹道本帧的位移线段是否与命中圆相交
+     * 线段从当前位置出发，长度为 速度 × deltaTime；取线段上离圆心最近的点与半径比较
+     * @param centerX 命中圆圆心X（目标位置或瞄准点）
+     * @param centerY 命中圆圆心Y
+     * @param radius 命中半径
+     */
+    private boolean sweptHit(int i, float centerX, float centerY, float radius, float deltaTime) {
+        float stepX = projectiles.vx[i] * deltaTime;
+        float stepY = projectiles.vy[i] * deltaTime;
+        float toCenterX = centerX - projectiles.x[i];
+        float toCenterY = centerY - projectiles.y[i];
+
+        // 最近点在线段上的参数 t ∈ [0, 1]；速度为0时退化为当前位置
+        float stepLengthSq = stepX * stepX + stepY * stepY;
+        float t = 0f;
+        if (stepLengthSq > 0f) {
+            t = (toCenterX * stepX + toCenterY * stepY) / stepLengthSq;
+            t = Math.max(0f, Math.min(1f, t));
+        }
+        float offsetX = toCenterX - stepX * t;
+        float offsetY = toCenterY - stepY * t;
+        return offsetX * offsetX + offsetY * offsetY <= radius * radius;
+    }
+
+    /**
+     * 检查敌人是否已被击败（生命值耗尽但尚未在同步点销毁）
+     */
+    private boolean isDefeated(Entity enemy) {
+        Health health = enemy.getComponent(Health.TYPE_ID);
+        return health != null && health.current <= 0;
+    }
+}
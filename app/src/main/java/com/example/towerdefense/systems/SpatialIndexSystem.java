@@ -0,0 +1,38 @@
+package com.example.towerdefense.systems;
+
+import com.example.towerdefense.ecs.ECSSystem;
+import com.example.towerdefense.ecs.World;
+import com.example.towerdefense.components.Transform;
+import com.example.towerdefense.components.Enemy;
+import com.example.towerdefense.resources.EnemyGrid;
+import com.example.towerdefense.resources.ScreenMetrics;
+
+/**
+ * 空间索引系统 - 每帧在敌人移动之后重建敌人空间网格（EnemyGrid）
+ * 必须注册在MovementSystem之后、DamageSystem和AttackSystem之前，范围伤害和攻击系统的查询才能看到本帧的敌人位置
+ * 继承自ECSSystem，处理所有具有Transform和Enemy组件的实体
+ */
+public class SpatialIndexSystem extends ECSSystem {
+    private EnemyGrid enemyGrid;
+
+    public SpatialIndexSystem() {
+        super(Transform.class, Enemy.class);
+    }
+
+    @Override
+    public void setWorld(World world) {
+        super.setWorld(world);
+        this.enemyGrid = world != null ? EnemyGrid.of(world) : null;
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        // 单元格边长与建造网格一致；屏幕尺寸未知时所有敌人落在同一个单元格，查询仍然正确
+        ScreenMetrics metrics = world.getResource(ScreenMetrics.class);
+        int cellSize = metrics != null ? metrics.gridSize : ScreenMetrics.DEFAULT_GRID_SIZE;
+        int width = metrics != null ? metrics.width : 0;
+        int height = metrics != null ? metrics.height : 0;
+
+        enemyGrid.rebuild(query.getEntities(), world.getPositions(), cellSize, width, height);
+    }
+}
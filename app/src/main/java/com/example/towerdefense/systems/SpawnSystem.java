@@ -3,10 +3,14 @@ package com.example.towerdefense.systems;
 import com.example.towerdefense.components.Path;
 import com.example.towerdefense.ecs.ECSSystem;
 import com.example.towerdefense.ecs.Entity;
+import com.example.towerdefense.ecs.ObjectPool;
 import com.example.towerdefense.components.Transform;
 import com.example.towerdefense.components.Health;
 import com.example.towerdefense.components.Enemy;
 import com.example.towerdefense.ecs.World;
+import com.example.towerdefense.resources.LevelConfig;
+import com.example.towerdefense.resources.CombatStats;
+import com.example.towerdefense.resources.PathRegistry;
 
 import java.util.List;
 
@@ -44,8 +48,12 @@ public class SpawnSystem extends ECSSystem {
 
     private List<SpawnGroupState> currentWaveGroupStates = new java.util.ArrayList<>();
 
-    // 添加LevelSystem引用
-    private LevelSystem levelSystem;
+    // 世界资源 - 关卡配置和路径注册表都由LevelSystem在初始化关卡时发布
+
+    // 敌人组件对象池 - 敌人被销毁后组件自动回收到这里
+    private ObjectPool<Transform> transformPool;
+    private ObjectPool<Health> healthPool;
+    private ObjectPool<Enemy> enemyPool;
 
     /**
      * 构造函数 - 这是一个全局管理系统，不需要特定组件
@@ -72,15 +80,27 @@ public class SpawnSystem extends ECSSystem {
     @Override
     public void setWorld(World world) {
         super.setWorld(world);
+        if (world != null) {
+            transformPool = world.getComponentPool(Transform.class, Transform::new);
+            healthPool = world.getComponentPool(Health.class, Health::new);
+            enemyPool = world.getComponentPool(Enemy.class, Enemy::new);
+        } else {
+            transformPool = null;
+            healthPool = null;
+            enemyPool = null;
+        }
         System.out.println("SpawnSystem: 世界引用已设置，world=" + (world != null ? "有效" : "null"));
     }
 
     /**
-     * 设置LevelSystem引用
+     * 获取当前关卡的波次配置 - 从世界资源LevelConfig中读取
      */
-    public void setLevelSystem(LevelSystem levelSystem) {
-        this.levelSystem = levelSystem;
-        System.out.println("SpawnSystem: LevelSystem引用已设置");
+    private LevelSystem.LevelWaveConfig getWaveConfig() {
+        if (world == null) {
+            return null;
+        }
+        LevelConfig levelConfig = world.getResource(LevelConfig.class);
+        return levelConfig != null ? levelConfig.waves : null;
     }
 
     @Override
@@ -103,7 +123,7 @@ public class SpawnSystem extends ECSSystem {
         // 检查是否在等待下一波开始
         if (isWaitingForNextWave) {
             timeSinceWaveCompleted += deltaTime;
-            LevelSystem.LevelWaveConfig waveConfig = levelSystem.getCurrentWaveConfig();
+            LevelSystem.LevelWaveConfig waveConfig = getWaveConfig();
             if (timeSinceWaveCompleted >= waveConfig.delayBetweenWaves) {
                 isWaitingForNextWave = false;
                 startNextWave();
@@ -125,7 +145,7 @@ public class SpawnSystem extends ECSSystem {
      * 开始下一波敌人
      */
     private void startNextWave() {
-        LevelSystem.LevelWaveConfig waveConfig = levelSystem.getCurrentWaveConfig();
+        LevelSystem.LevelWaveConfig waveConfig = getWaveConfig();
         if (waveConfig == null || currentWaveIndex >= waveConfig.waves.size()) {
             // 所有波次完成
             allWavesCompleted = true;
@@ -158,7 +178,7 @@ public class SpawnSystem extends ECSSystem {
      * 执行当前波次的生成逻辑 - 优化后的版本
      */
     private void executeCurrentWave(float deltaTime) {
-        LevelSystem.LevelWaveConfig waveConfig = levelSystem.getCurrentWaveConfig();
+        LevelSystem.LevelWaveConfig waveConfig = getWaveConfig();
         List<LevelSystem.WaveConfig> currentWave = waveConfig.waves.get(currentWaveIndex);
 
         timeSinceWaveStart += deltaTime;
@@ -208,33 +228,19 @@ public class SpawnSystem extends ECSSystem {
     private void spawnEnemy(Enemy.Type enemyType, Path.PathTag pathTag) {
         Entity enemy = world.createEntity();
 
-        // 配置敌人属性
-        int health = 0;
-        float speed = 0;
-        int reward = 0;
-
-        switch (enemyType) {
-            case Vehicle:
-                health = 30;
-                speed = 100;
-                reward = 5;
-                break;
-            case Infantry:
-                health = 60;
-                speed = 60;
-                reward = 10;
-                break;
-            case Armour:
-                health = 100;
-                speed = 40;
-                reward = 20;
-                break;
-        }
+        // 敌人属性来自战斗数值表
+        CombatStats stats = CombatStats.of(world);
+        int e = enemyType.ordinal();
+        int health = stats.enemyHealth[e];
+        float speed = stats.enemySpeed[e];
+        int reward = stats.enemyReward[e];
 
         float[] startPosition = getPathStartPosition(pathTag);
-        enemy.addComponent(new Transform(startPosition[0], startPosition[1]));
-        enemy.addComponent(new Health(health));
-        enemy.addComponent(new Enemy(enemyType, speed, reward, pathTag));
+        Transform transform = transformPool.obtain();
+        transform.set(startPosition[0], startPosition[1]);
+        enemy.addComponent(transform);
+        enemy.addComponent(healthPool.obtain().init(health));
+        enemy.addComponent(enemyPool.obtain().init(enemyType, speed, reward, pathTag));
 
         System.out.println("SpawnSystem: 生成 " + enemyType + " 敌人，路径=" + pathTag);
     }
@@ -243,18 +249,17 @@ public class SpawnSystem extends ECSSystem {
      * 根据路径标签获取路径的起点位置
      */
     private float[] getPathStartPosition(Path.PathTag pathTag) {
-        // 从世界中找到对应的路径
-        for (Entity entity : world.getEntitiesWithComponent(Path.class)) {
-            Path path = entity.getComponent(Path.class);
-            if (path.getTag() == pathTag) {
-                // 使用路径组件的转换方法，确保一致性
-                float[][] screenPoints = path.convertToScreenCoordinates(screenWidth, screenHeight);
-                if (screenPoints.length > 0) {
-                    float startX = screenPoints[0][0];
-                    float startY = screenPoints[0][1];
-                    System.out.println("SpawnSystem: 路径 " + pathTag + " 起点: (" + startX + ", " + startY + ")");
-                    return new float[]{startX, startY};
-                }
+        // 按标签直接从路径注册表取路径
+        PathRegistry paths = world.getResource(PathRegistry.class);
+        Path path = paths != null ? paths.get(pathTag) : null;
+        if (path != null) {
+            // 使用路径组件的转换方法，确保一致性
+            float[][] screenPoints = path.convertToScreenCoordinates(screenWidth, screenHeight);
+            if (screenPoints.length > 0) {
+                float startX = screenPoints[0][0];
+                float startY = screenPoints[0][1];
+                System.out.println("SpawnSystem: 路径 " + pathTag + " 起点: (" + startX + ", " + startY + ")");
+                return new float[]{startX, startY};
             }
         }
 
@@ -269,7 +274,7 @@ public class SpawnSystem extends ECSSystem {
     private void completeCurrentWave() {
         isWaveActive = false;
 
-        LevelSystem.LevelWaveConfig waveConfig = levelSystem.getCurrentWaveConfig();
+        LevelSystem.LevelWaveConfig waveConfig = getWaveConfig();
 
         // 检查是否还有下一波
         if (currentWaveIndex + 1 < waveConfig.waves.size()) {
@@ -330,7 +335,7 @@ public class SpawnSystem extends ECSSystem {
             return "所有波次已完成";
         }
 
-        LevelSystem.LevelWaveConfig waveConfig = levelSystem.getCurrentWaveConfig();
+        LevelSystem.LevelWaveConfig waveConfig = getWaveConfig();
         if (waveConfig == null) return "无波次配置";
 
         int totalWaves = waveConfig.waves.size();
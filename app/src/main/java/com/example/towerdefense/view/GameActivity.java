@@ -16,9 +16,10 @@ import com.example.towerdefense.GameEngine;
 import com.example.towerdefense.R;
 import com.example.towerdefense.components.Tower;
 import com.example.towerdefense.ecs.World;
-import com.example.towerdefense.ecs.Entity;
+import com.example.towerdefense.ecs.ComponentRegistry;
+import com.example.towerdefense.ecs.EntityQuery;
 import com.example.towerdefense.components.Enemy;
-import com.example.towerdefense.components.Projectile;
+import com.example.towerdefense.resources.ProjectileStore;
 import android.os.Handler;
 import android.widget.Toast;
 import com.example.towerdefense.managers.AudioManager;
@@ -31,6 +32,11 @@ public class GameActivity extends AppCompatActivity implements GameEngine.GameUp
     // ========== 核心游戏组件 ==========
     private GameEngine gameEngine;
     private GameView gameView;
+
+    // 调试计数用的持久查询，世界变化时重建一次；每帧只读取数量，不复制实体列表
+    private World queriedWorld;
+    private EntityQuery enemyQuery;
+    private EntityQuery towerQuery;
     private int currentLevelId;
     private String currentLevelName;
 
@@ -1443,15 +1449,16 @@ public class GameActivity extends AppCompatActivity implements GameEngine.GameUp
             updateResourceDisplay();
 
             // 添加调试信息
-            int enemyCount = 0;
-            int towerCount = 0;
-            int projectileCount = 0;
-
-            for (Entity entity : world.getAllEntities()) {
-                if (entity.hasComponent(Enemy.class)) enemyCount++;
-                if (entity.hasComponent(Tower.class)) towerCount++;
-                if (entity.hasComponent(Projectile.class)) projectileCount++;
+            if (world != queriedWorld) {
+                queriedWorld = world;
+                enemyQuery = world.getQuery(ComponentRegistry.maskOf(Enemy.class));
+                towerQuery = world.getQuery(ComponentRegistry.maskOf(Tower.class));
             }
+            int enemyCount = enemyQuery.size();
+            int towerCount = towerQuery.size();
+            // 弹道不是实体，数量直接取弹道存储的有效行数
+            ProjectileStore projectiles = world.getResource(ProjectileStore.class);
+            int projectileCount = projectiles != null ? projectiles.count : 0;
 
             System.out.println("调试 - 敌人: " + enemyCount +
                     ", 防御塔: " + towerCount +
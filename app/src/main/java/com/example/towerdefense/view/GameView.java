@@ -19,12 +19,15 @@ import com.example.towerdefense.R;
 import com.example.towerdefense.components.Enemy;
 import com.example.towerdefense.components.Health;
 import com.example.towerdefense.components.Path;
-import com.example.towerdefense.components.Projectile;
 import com.example.towerdefense.components.Tower;
 import com.example.towerdefense.components.Transform;
 import com.example.towerdefense.ecs.Entity;
+import com.example.towerdefense.ecs.Query2;
 import com.example.towerdefense.ecs.World;
+import com.example.towerdefense.resources.PathRegistry;
+import com.example.towerdefense.resources.ProjectileStore;
 
+import java.util.Collections;
 import java.util.List;
 
 public class GameView extends View {
@@ -47,6 +50,15 @@ public class GameView extends View {
     private Paint highlightPaint;
     private Paint removeModePaint;
 
+    // ========== 实体绘制查询 ==========
+    // 类型化查询在世界变化时重建一次；回调保存在字段中，每帧绘制不分配内存
+    private World queriedWorld;
+    private Query2<Transform, Tower> towerDrawQuery;
+    private Query2<Transform, Enemy> enemyDrawQuery;
+    private Canvas drawCanvas;
+    private final Query2.Each<Transform, Tower> towerDrawer = (entity, transform, tower) -> drawTower(drawCanvas, entity, transform);
+    private final Query2.Each<Transform, Enemy> enemyDrawer = (entity, transform, enemy) -> drawEnemy(drawCanvas, entity, transform);
+
     // ========== 路径检测和高亮相关字段 ==========
     private GridPosition highlightedGrid = null;
     private boolean showHighlight = false;
@@ -674,11 +686,12 @@ public class GameView extends View {
      * 绘制游戏地图和路径
      */
     private void drawMap(Canvas canvas, World world) {
-        List<Entity> pathEntities = world.getEntitiesWithComponent(Path.class);
+        PathRegistry pathRegistry = world.getResource(PathRegistry.class);
+        List<Path> paths = pathRegistry != null ? pathRegistry.getPaths() : Collections.<Path>emptyList();
 
-        for (Entity pathEntity : pathEntities) {
-            Path path = pathEntity.getComponent(Path.class);
-            if (path != null && path.isVisible()) {
+        for (int i = 0; i < paths.size(); i++) {
+            Path path = paths.get(i);
+            if (path.isVisible()) {
                 drawSinglePath(canvas, path);
             }
         }
@@ -720,18 +733,23 @@ public class GameView extends View {
      * 绘制所有游戏实体
      */
     private void drawAllEntities(Canvas canvas, World world) {
-        List<Entity> entities = world.getAllEntities();
-
-        for (Entity entity : entities) {
-            Transform transform = entity.getComponent(Transform.class);
-            if (transform == null) continue;
-
-            if (entity.hasComponent(Enemy.class)) {
-                drawEnemy(canvas, entity, transform);
-            } else if (entity.hasComponent(Tower.class)) {
-                drawTower(canvas, entity, transform);
-            } else if (entity.hasComponent(Projectile.class)) {
-                drawProjectile(canvas, entity, transform);
+        if (world != queriedWorld) {
+            queriedWorld = world;
+            towerDrawQuery = world.query(Transform.class, Tower.class);
+            enemyDrawQuery = world.query(Transform.class, Enemy.class);
+        }
+
+        // 按图层绘制：防御塔在下，敌人居中，弹道在最上层
+        drawCanvas = canvas;
+        towerDrawQuery.forEach(towerDrawer);
+        enemyDrawQuery.forEach(enemyDrawer);
+        drawCanvas = null;
+
+        // 弹道不是实体，直接遍历弹道存储的有效行
+        ProjectileStore projectiles = world.getResource(ProjectileStore.class);
+        if (projectiles != null) {
+            for (int i = 0; i < projectiles.count; i++) {
+                drawProjectile(canvas, projectiles, i);
             }
         }
     }
@@ -740,8 +758,8 @@ public class GameView extends View {
      * 绘制敌人 - 添加伤害类型视觉反馈
      */
     private void drawEnemy(Canvas canvas, Entity enemy, Transform transform) {
-        Enemy enemyComp = enemy.getComponent(Enemy.class);
-        Health health = enemy.getComponent(Health.class);
+        Enemy enemyComp = enemy.getComponent(Enemy.TYPE_ID);
+        Health health = enemy.getComponent(Health.TYPE_ID);
 
         if (enemyComp == null) return;
 
@@ -749,7 +767,7 @@ public class GameView extends View {
 
         if (enemyDrawable != null) {
             canvas.save();
-            canvas.translate(transform.x - enemyIconSize / 2f, transform.y - enemyIconSize / 2f);
+            canvas.translate(transform.getX() - enemyIconSize / 2f, transform.getY() - enemyIconSize / 2f);
             enemyDrawable.draw(canvas);
             canvas.restore();
         } else {
@@ -769,7 +787,7 @@ public class GameView extends View {
      * 绘制防御塔 - 使用矢量图，保持原始比例
      */
     private void drawTower(Canvas canvas, Entity tower, Transform transform) {
-        Tower towerComp = tower.getComponent(Tower.class);
+        Tower towerComp = tower.getComponent(Tower.TYPE_ID);
         if (towerComp == null) return;
         try {
             Drawable towerDrawable = getTowerDrawable(towerComp.type);
@@ -782,8 +800,8 @@ public class GameView extends View {
                 int drawHeight = (int) (towerIconSize / aspectRatio);
 
                 // 计算绘制位置（使防御塔位于网格中心）
-                int left = (int) (transform.x - drawWidth / 2f);
-                int top = (int) (transform.y - drawHeight / 2f);
+                int left = (int) (transform.getX() - drawWidth / 2f);
+                int top = (int) (transform.getY() - drawHeight / 2f);
 
                 // 设置Drawable边界并绘制
                 towerDrawable.setBounds(left, top, left + drawWidth, top + drawHeight);
@@ -808,16 +826,16 @@ public class GameView extends View {
                 path.setFillType(android.graphics.Path.FillType.EVEN_ODD);
 
                 // 外圈圆形
-                path.addCircle(transform.x, transform.y, towerComp.range, android.graphics.Path.Direction.CW);
+                path.addCircle(transform.getX(), transform.getY(), towerComp.range, android.graphics.Path.Direction.CW);
                 // 内圈圆形（会被从外圈中减去）
-                path.addCircle(transform.x, transform.y, towerComp.innerRange, android.graphics.Path.Direction.CCW);
+                path.addCircle(transform.getX(), transform.getY(), towerComp.innerRange, android.graphics.Path.Direction.CCW);
 
                 canvas.drawPath(path, paint);
 
             } else {
                 // 其他塔：绘制圆形范围
                 paint.setColor(Color.argb(50, 255, 255, 255));
-                canvas.drawCircle(transform.x, transform.y, towerComp.range, paint);
+                canvas.drawCircle(transform.getX(), transform.getY(), towerComp.range, paint);
             }
         }
     }
@@ -832,46 +850,48 @@ public class GameView extends View {
             case Artillery: paint.setColor(Color.BLUE); break;
             default: paint.setColor(Color.GRAY); break;
         }
-        canvas.drawCircle(transform.x, transform.y, towerIconSize / 3f, paint);
+        canvas.drawCircle(transform.getX(), transform.getY(), towerIconSize / 3f, paint);
     }
 
     /**
      * 绘制抛射体 - 根据类型使用不同的绘制方式
      */
-    private void drawProjectile(Canvas canvas, Entity projectile, Transform transform) {
-        Projectile projectileComp = projectile.getComponent(Projectile.class);
+    private void drawProjectile(Canvas canvas, ProjectileStore projectiles, int i) {
+        float x = projectiles.x[i];
+        float y = projectiles.y[i];
+        Tower.Type towerType = projectiles.getTowerType(i);
 
-        if (projectileComp != null) {
-            switch (projectileComp.towerType) {
+        if (towerType != null) {
+            switch (towerType) {
                 case Infantry:
                     // 步兵：绘制黄色细长矩形
-                    drawInfantryProjectile(canvas, transform, projectileComp);
+                    drawInfantryProjectile(canvas, x, y);
                     break;
 
                 case Anti_tank:
                     // 反坦克兵：使用SVG图像并旋转
-                    drawAntitankProjectile(canvas, transform, projectileComp);
+                    drawAntitankProjectile(canvas, x, y);
                     break;
 
                 case Artillery:
                     // 炮兵：使用SVG图像，正上方为飞行方向
-                    drawArtilleryProjectile(canvas, transform, projectileComp);
+                    drawArtilleryProjectile(canvas, x, y, projectiles.targetX[i], projectiles.targetY[i]);
                     break;
 
                 default:
                     // 默认：白色圆形
-                    drawFallbackProjectile(canvas, transform);
+                    drawFallbackProjectile(canvas, x, y);
                     break;
             }
         } else {
-            drawFallbackProjectile(canvas, transform);
+            drawFallbackProjectile(canvas, x, y);
         }
     }
 
     /**
      * 绘制步兵子弹 - 黄色细长矩形
      */
-    private void drawInfantryProjectile(Canvas canvas, Transform transform, Projectile projectile) {
+    private void drawInfantryProjectile(Canvas canvas, float x, float y) {
         paint.setColor(Color.YELLOW);
         paint.setStyle(Paint.Style.FILL);
 
@@ -880,20 +900,20 @@ public class GameView extends View {
         float width = 4f;    // 宽度
 
         canvas.drawRect(
-                transform.x - length/2, transform.y - width/2,
-                transform.x + length/2, transform.y + width/2,
+                x - length/2, y - width/2,
+                x + length/2, y + width/2,
                 paint
         );
 
         // 添加头部尖角效果
         paint.setColor(Color.WHITE);
-        canvas.drawCircle(transform.x + length/2, transform.y, width/2, paint);
+        canvas.drawCircle(x + length/2, y, width/2, paint);
     }
 
     /**
      * 绘制反坦克手雷 - 使用SVG图像并旋转，保持宽高比
      */
-    private void drawAntitankProjectile(Canvas canvas, Transform transform, Projectile projectile) {
+    private void drawAntitankProjectile(Canvas canvas, float x, float y) {
         if (antitankProjectileDrawable != null) {
             try {
                 // 更新旋转角度（基于时间）
@@ -907,7 +927,7 @@ public class GameView extends View {
                 canvas.save();
 
                 // 移动到抛射体位置并旋转
-                canvas.translate(transform.x, transform.y);
+                canvas.translate(x, y);
                 canvas.rotate(antitankRotation);
 
                 // 使用实际尺寸计算绘制位置（使图像中心与抛射体位置对齐）
@@ -927,33 +947,31 @@ public class GameView extends View {
 
             } catch (Exception e) {
                 System.err.println("GameView: 绘制反坦克手雷时发生异常: " + e.getMessage());
-                drawFallbackProjectile(canvas, transform);
+                drawFallbackProjectile(canvas, x, y);
             }
         } else {
             // 备用：红色圆形
             paint.setColor(Color.RED);
             paint.setStyle(Paint.Style.FILL);
-            canvas.drawCircle(transform.x, transform.y, 6f, paint);
+            canvas.drawCircle(x, y, 6f, paint);
         }
     }
 
     /**
      * 绘制炮兵炮弹 - 使用SVG图像，保持宽高比，并使其朝向飞行方向。
      * @param canvas 画布
-     * @param transform 炮弹实体的Transform组件（包含当前位置）
-     * @param projectileComp 炮弹实体的Projectile组件（包含目标位置）
+     * @param currentX 炮弹当前X坐标
+     * @param currentY 炮弹当前Y坐标
+     * @param targetX 炮弹落点X坐标
+     * @param targetY 炮弹落点Y坐标
      */
-    private void drawArtilleryProjectile(Canvas canvas, Transform transform, Projectile projectileComp) {
+    private void drawArtilleryProjectile(Canvas canvas, float currentX, float currentY, float targetX, float targetY) {
         if (artilleryProjectileDrawable == null) {
-            drawFallbackProjectile(canvas, transform); // 如果图标加载失败，使用备用方案
+            drawFallbackProjectile(canvas, currentX, currentY); // 如果图标加载失败，使用备用方案
             return;
         }
 
-        // 1. 获取炮弹当前位置和目标位置
-        float currentX = transform.x;
-        float currentY = transform.y;
-        float targetX = projectileComp.targetX;
-        float targetY = projectileComp.targetY;
+        // 1. 炮弹当前位置和目标位置由弹道存储直接给出
 
         // 2. 计算从当前位置到目标位置的方向向量
         float deltaX = targetX - currentX;
@@ -1004,22 +1022,13 @@ public class GameView extends View {
         canvas.restore();
     }
 
-    /**
-     * 计算抛射体飞行方向角度
-     */
-    private float calculateProjectileAngle(Projectile projectile) {
-        // 这里可以根据抛射体的速度向量计算实际飞行方向
-        // 暂时返回0度（正上方），你可以根据实际需要修改
-        return 0f;
-    }
-
     /**
      * 备用抛射体绘制方案
      */
-    private void drawFallbackProjectile(Canvas canvas, Transform transform) {
+    private void drawFallbackProjectile(Canvas canvas, float x, float y) {
         paint.setColor(Color.WHITE);
         paint.setStyle(Paint.Style.FILL);
-        canvas.drawCircle(transform.x, transform.y, 5f, paint);
+        canvas.drawCircle(x, y, 5f, paint);
     }
 
     /**
@@ -1069,7 +1078,7 @@ public class GameView extends View {
                 break;
         }
 
-        canvas.drawText(typeInfo, transform.x - 30, transform.y - enemyIconSize / 2f - 5, paint);
+        canvas.drawText(typeInfo, transform.getX() - 30, transform.getY() - enemyIconSize / 2f - 5, paint);
     }
     /**
      * 绘制用户界面
@@ -1097,7 +1106,7 @@ public class GameView extends View {
     private void drawDebugInfo(Canvas canvas, World world) {
         paint.setColor(Color.WHITE);
         paint.setTextSize(20);
-        int entityCount = world.getAllEntities().size();
+        int entityCount = world.getEntityCount();
         canvas.drawText("实体数量: " + entityCount, 10, getHeight() - 20, paint);
         canvas.drawText("网格: " + gridSize + "px", 10, getHeight() - 50, paint);
     }
@@ -1182,8 +1191,8 @@ public class GameView extends View {
         paint.setColor(Color.DKGRAY);
         float barWidth = 40f;
         float barHeight = 5f;
-        float barX = transform.x - barWidth / 2;
-        float barY = transform.y - yOffset;
+        float barX = transform.getX() - barWidth / 2;
+        float barY = transform.getY() - yOffset;
 
         canvas.drawRect(barX, barY, barX + barWidth, barY + barHeight, paint);
 